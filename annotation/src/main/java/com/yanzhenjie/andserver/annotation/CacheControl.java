@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p> The {@code Cache-Control} of the responses of the handler, the annotation of the method overrides the one of the
+ * controller. </p>
+ *
+ * <pre>
+ * <code>@GetMapping("/config")</code>
+ * <code>@CacheControl(maxAge = 60, staleWhileRevalidate = 600)</code>
+ * public Config config() {
+ *     ...
+ * }
+ * </pre>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.SOURCE)
+public @interface CacheControl {
+
+    /**
+     * Alias for {@link #maxAge()}.
+     */
+    long value() default -1;
+
+    /**
+     * The max age (in seconds) of the response in the caches. A negative value means <em>undefined</em>.
+     */
+    long maxAge() default -1;
+
+    /**
+     * Whether the response can be stored by the shared caches, e.g. the proxies. The default is {@code private}.
+     */
+    boolean isPublic() default false;
+
+    /**
+     * Whether the response must be revalidated before it is used.
+     */
+    boolean noCache() default false;
+
+    /**
+     * Whether the response must not be stored.
+     */
+    boolean noStore() default false;
+
+    /**
+     * Whether the stale response must be revalidated before it is used.
+     */
+    boolean mustRevalidate() default false;
+
+    /**
+     * Whether the response is not changed while it is fresh, e.g. the fingerprinted assets.
+     */
+    boolean immutable() default false;
+
+    /**
+     * The time (in seconds) the stale response can be used while it is revalidated in the background. A negative
+     * value means <em>undefined</em>.
+     */
+    long staleWhileRevalidate() default -1;
+}
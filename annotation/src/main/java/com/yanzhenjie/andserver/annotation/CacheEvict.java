@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p> Evict the cached responses of the tags after the handler succeeds, e.g. the handler which changes the data. </p>
+ *
+ * <pre>
+ * <code>@PostMapping("/users")</code>
+ * <code>@CacheEvict("users")</code>
+ * public User addUser(...) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @see ResponseCache
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface CacheEvict {
+
+    /**
+     * The tags of the responses which are evicted.
+     */
+    String[] value() default {};
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p> Keep the response of the handler in the memory of the server, the handler is not invoked again until the
+ * response expires. </p>
+ *
+ * <pre>
+ * <code>@GetMapping("/users")</code>
+ * <code>@ResponseCache(ttl = 300, headers = "Accept-Language", tags = "users")</code>
+ * public List&lt;User&gt; users() {
+ *     ...
+ * }
+ * </pre>
+ *
+ * Only the successful responses of {@code GET} and {@code HEAD} are cached, the responses which create a session or
+ * set a cookie are not cached. The requests which carry the {@code Cookie} or the {@code Authorization}, e.g. the
+ * requests of an existing session, are neither cached nor answered from the cache, unless the header is listed in
+ * the {@link #headers()}, then the responses of different callers are kept apart.
+ *
+ * @see CacheEvict
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.SOURCE)
+public @interface ResponseCache {
+
+    /**
+     * Alias for {@link #ttl()}.
+     */
+    long value() default -1;
+
+    /**
+     * The time (in seconds) the response is kept, the default is 60 seconds.
+     */
+    long ttl() default -1;
+
+    /**
+     * The request headers which select different responses, e.g. {@code Accept-Language}. The path and the query are
+     * always part of the key.
+     */
+    String[] headers() default {};
+
+    /**
+     * The tags of the response, they are used to evict the related responses, see {@link CacheEvict}.
+     */
+    String[] tags() default {};
+}
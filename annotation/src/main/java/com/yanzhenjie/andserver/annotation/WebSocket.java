@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p> The endpoint of the WebSocket, it must be used in a subclass of {@code WebSocketHandler}. </p>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.SOURCE)
+public @interface WebSocket {
+
+    /**
+     * The paths of the endpoint.
+     */
+    String[] value();
+
+    /**
+     * Group name.
+     */
+    String group() default "default";
+
+    /**
+     * The max size of the incoming frames and messages in bytes, the connection is closed with {@code 1009} if it is
+     * exceeded.
+     */
+    int maxFrameSize() default 64 * 1024;
+
+    /**
+     * The max size of the outgoing data which waits to be sent in bytes, the data is dropped if it is exceeded.
+     */
+    int maxQueueSize() default 1024 * 1024;
+}
@@ -40,6 +40,7 @@ public class ComponentRegister {
         REGISTER_LIST.add("ConverterRegister");
         REGISTER_LIST.add("InterceptorRegister");
         REGISTER_LIST.add("ResolverRegister");
+        REGISTER_LIST.add("WebSocketRegister");
     }
 
     private Context mContext;
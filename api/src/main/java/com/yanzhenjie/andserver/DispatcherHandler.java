@@ -27,17 +27,34 @@ import com.yanzhenjie.andserver.framework.ExceptionResolver;
 import com.yanzhenjie.andserver.framework.HandlerInterceptor;
 import com.yanzhenjie.andserver.framework.MessageConverter;
 import com.yanzhenjie.andserver.framework.ModifiedInterceptor;
+import com.yanzhenjie.andserver.framework.body.ByteArrayBody;
+import com.yanzhenjie.andserver.framework.body.ChunkedBody;
 import com.yanzhenjie.andserver.framework.body.StringBody;
+import com.yanzhenjie.andserver.framework.cache.ResponseCache;
+import com.yanzhenjie.andserver.framework.cache.ResponseCacheStore;
 import com.yanzhenjie.andserver.framework.config.Multipart;
 import com.yanzhenjie.andserver.framework.handler.HandlerAdapter;
+import com.yanzhenjie.andserver.framework.handler.MappingAdapter;
+import com.yanzhenjie.andserver.framework.handler.MappingHandler;
 import com.yanzhenjie.andserver.framework.handler.RequestHandler;
+import com.yanzhenjie.andserver.framework.handler.RouteMatch;
+import com.yanzhenjie.andserver.framework.handler.RouteTrie;
+import com.yanzhenjie.andserver.framework.view.BodyView;
+import com.yanzhenjie.andserver.framework.view.ObjectView;
 import com.yanzhenjie.andserver.framework.view.View;
 import com.yanzhenjie.andserver.framework.view.ViewResolver;
+import com.yanzhenjie.andserver.framework.websocket.WebSocketEndpoint;
+import com.yanzhenjie.andserver.http.AsyncContext;
+import com.yanzhenjie.andserver.http.DeferredResult;
 import com.yanzhenjie.andserver.http.HttpContext;
+import com.yanzhenjie.andserver.http.HttpHeaders;
+import com.yanzhenjie.andserver.http.HttpMethod;
 import com.yanzhenjie.andserver.http.HttpRequest;
 import com.yanzhenjie.andserver.http.HttpResponse;
 import com.yanzhenjie.andserver.http.RequestDispatcher;
 import com.yanzhenjie.andserver.http.RequestWrapper;
+import com.yanzhenjie.andserver.http.ResponseBody;
+import com.yanzhenjie.andserver.http.ResponseWrapper;
 import com.yanzhenjie.andserver.http.StandardContext;
 import com.yanzhenjie.andserver.http.StandardRequest;
 import com.yanzhenjie.andserver.http.StandardResponse;
@@ -48,21 +65,33 @@ import com.yanzhenjie.andserver.http.multipart.MultipartResolver;
 import com.yanzhenjie.andserver.http.multipart.StandardMultipartResolver;
 import com.yanzhenjie.andserver.http.session.Session;
 import com.yanzhenjie.andserver.http.session.SessionManager;
+import com.yanzhenjie.andserver.http.session.SessionSerializer;
 import com.yanzhenjie.andserver.http.session.StandardSessionManager;
 import com.yanzhenjie.andserver.register.Register;
 import com.yanzhenjie.andserver.util.Assert;
 
 import org.apache.httpcore.protocol.HttpRequestHandler;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Created by Zhenjie Yan on 2018/8/8.
  */
-public class DispatcherHandler implements HttpRequestHandler, Register {
+public class DispatcherHandler implements HttpRequestHandler, Register, Closeable {
+
+    private static final long DEFAULT_ASYNC_TIMEOUT = 30 * 1000;
+    private static final long DEFAULT_RESPONSE_CACHE_SIZE = 4 * 1024 * 1024;
+    private static final int DEFAULT_RESPONSE_CACHE_ENTRY_SIZE = 512 * 1024;
 
     private final Context mContext;
 
@@ -71,15 +100,22 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
     private ViewResolver mViewResolver;
     private ExceptionResolver mResolver;
     private Multipart mMultipart;
+    private long mAsyncTimeout = DEFAULT_ASYNC_TIMEOUT;
+    private ResponseCacheStore mResponseCache;
 
     private List<HandlerAdapter> mAdapterList = new LinkedList<>();
     private List<HandlerInterceptor> mInterceptorList = new LinkedList<>();
+    private Map<String, WebSocketEndpoint> mWebSocketMap = new HashMap<>();
+
+    private RouteTrie.Builder mRouteBuilder = new RouteTrie.Builder();
+    private volatile RouteTrie mRouteTrie = RouteTrie.EMPTY;
 
     public DispatcherHandler(Context context) {
         this.mContext = context;
         this.mSessionManager = new StandardSessionManager(context);
         this.mViewResolver = new ViewResolver();
         this.mResolver = new ExceptionResolver.ResolverWrapper(ExceptionResolver.DEFAULT);
+        this.mResponseCache = new ResponseCacheStore(DEFAULT_RESPONSE_CACHE_SIZE, DEFAULT_RESPONSE_CACHE_ENTRY_SIZE);
 
         this.mInterceptorList.add(new ModifiedInterceptor());
     }
@@ -90,6 +126,11 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
 
         if (!mAdapterList.contains(adapter)) {
             mAdapterList.add(adapter);
+
+            if (adapter instanceof MappingAdapter) {
+                mRouteBuilder.addAdapter((MappingAdapter) adapter);
+                mRouteTrie = mRouteBuilder.build();
+            }
         }
     }
 
@@ -102,6 +143,14 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
         }
     }
 
+    @Override
+    public void addWebSocket(@NonNull String path, @NonNull WebSocketEndpoint endpoint) {
+        Assert.notNull(path, "The path cannot be null.");
+        Assert.notNull(endpoint, "The endpoint cannot be null.");
+
+        mWebSocketMap.put(path, endpoint);
+    }
+
     @Override
     public void setConverter(MessageConverter converter) {
         this.mConverter = converter;
@@ -120,30 +169,84 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
         this.mMultipart = multipart;
     }
 
+    @Override
+    public void setAsyncTimeout(long timeout) {
+        this.mAsyncTimeout = timeout > 0 ? timeout : DEFAULT_ASYNC_TIMEOUT;
+    }
+
+    @Override
+    public void setSessionTimeout(long timeout) {
+        if (mSessionManager instanceof StandardSessionManager) {
+            int interval = timeout > 0 ? (int) Math.max(1, timeout / 1000) : -1;
+            ((StandardSessionManager) mSessionManager).setMaxInactiveInterval(interval);
+        }
+    }
+
+    @Override
+    public void setSessionSweepInterval(long interval) {
+        if (mSessionManager instanceof StandardSessionManager) {
+            ((StandardSessionManager) mSessionManager).setSweepInterval(interval);
+        }
+    }
+
+    @Override
+    public void setSessionSerializer(SessionSerializer serializer) {
+        if (serializer != null && mSessionManager instanceof StandardSessionManager) {
+            ((StandardSessionManager) mSessionManager).setSerializer(serializer);
+        }
+    }
+
+    @Override
+    public void setResponseCache(ResponseCacheStore store) {
+        if (store != null) {
+            this.mResponseCache = store;
+        }
+    }
+
+    /**
+     * Release the resources after the server has been stopped, e.g. write the pending sessions.
+     */
+    @Override
+    public void close() throws IOException {
+        if (mSessionManager instanceof Closeable) {
+            ((Closeable) mSessionManager).close();
+        }
+    }
+
     @Override
     public void handle(org.apache.httpcore.HttpRequest req, org.apache.httpcore.HttpResponse res,
                        org.apache.httpcore.protocol.HttpContext con) {
         HttpRequest request = new StandardRequest(req, new StandardContext(con), this, mSessionManager);
         HttpResponse response = new StandardResponse(res);
+
+        WebSocketEndpoint endpoint = mWebSocketMap.get(request.getPath());
+        if (endpoint != null && endpoint.isUpgrade(request)) {
+            endpoint.handshake(request, response);
+            return;
+        }
         handle(request, response);
     }
 
     private void handle(HttpRequest request, HttpResponse response) {
         MultipartResolver multipartResolver = new StandardMultipartResolver();
+        boolean isAsync = false;
         try {
             if (multipartResolver.isMultipart(request)) {
                 configMultipart(multipartResolver);
                 request = multipartResolver.resolveMultipart(request);
             }
 
-            // Determine adapter for the current request.
-            HandlerAdapter ha = getHandlerAdapter(request);
-            if (ha == null) {
+            // Determine adapter and handler for the current request.
+            RouteMatch match = getRouteMatch(request);
+            if (match == null) {
                 throw new NotFoundException(request.getPath());
             }
+            request.setAttribute(HttpContext.ROUTE_MATCH, match);
+            if (match.getProduce() != null) {
+                request.setAttribute(HttpContext.RESPONSE_PRODUCE_TYPE, match.getProduce());
+            }
 
-            // Determine handler for the current request.
-            RequestHandler handler = ha.getHandler(request);
+            RequestHandler handler = match.getHandler();
             if (handler == null) {
                 throw new NotFoundException(request.getPath());
             }
@@ -156,25 +259,183 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
             // Actually invoke the handler.
             request.setAttribute(HttpContext.ANDROID_CONTEXT, mContext);
             request.setAttribute(HttpContext.HTTP_MESSAGE_CONVERTER, mConverter);
-            View view = handler.handle(request, response);
-            mViewResolver.resolve(view, request, response);
-            processSession(request, response);
-        } catch (Throwable err) {
-            try {
-                mResolver.onResolve(request, response, err);
-            } catch (Exception e) {
-                e = new ServerInternalException(e);
-                response.setStatus(StatusCode.SC_INTERNAL_SERVER_ERROR);
-                response.setBody(new StringBody(e.getMessage()));
+            request.setAttribute(HttpContext.RESPONSE_CACHE, mResponseCache);
+
+            // Replay the cached response without invoking the handler.
+            ResponseCache responseCache = null;
+            if (handler instanceof MappingHandler) {
+                responseCache = ((MappingHandler) handler).getResponseCache();
+            }
+            String cacheKey = null;
+            CaptureResponse captureResponse = null;
+            HttpMethod method = request.getMethod();
+            if (responseCache != null && responseCache.getTtl() > 0 &&
+                (method == HttpMethod.GET || method == HttpMethod.HEAD) && responseCache.isCacheable(request)) {
+                cacheKey = responseCache.getKey(request);
+                ResponseCacheStore.Entry entry = mResponseCache.get(cacheKey);
+                if (entry != null) {
+                    mViewResolver.resolve(new BodyView(entry.replay(response)), request, response);
+                    processSession(request, response);
+                    return;
+                }
+                captureResponse = new CaptureResponse(response);
+            }
+
+            View view = handler.handle(request, captureResponse == null ? response : captureResponse);
+            if (view != null) {
+                applyTimeout(view.output());
             }
+            if (view != null && view.output() instanceof DeferredResult) {
+                DeferredResult<?> result = (DeferredResult<?>) view.output();
+                isAsync = startAsync(request, response, view.rest(), result, multipartResolver, responseCache,
+                    cacheKey, captureResponse);
+                return;
+            }
+            mViewResolver.resolve(view, request, captureResponse == null ? response : captureResponse);
+            if (captureResponse != null) {
+                storeResponse(request, response, captureResponse.mBody, cacheKey, responseCache);
+            }
+            evictResponses(response, responseCache);
             processSession(request, response);
+        } catch (Throwable err) {
+            resolveException(request, response, err);
         } finally {
-            if (request instanceof MultipartRequest) {
+            if (!isAsync && request instanceof MultipartRequest) {
                 multipartResolver.cleanupMultipart((MultipartRequest) request);
             }
         }
     }
 
+    /**
+     * Resolve the result when it is set. If the server offers {@link AsyncContext}, the response is suspended and the
+     * worker thread is released, otherwise the current thread waits for the result.
+     *
+     * @return true if the response has been suspended.
+     */
+    private boolean startAsync(final HttpRequest request, final HttpResponse response, final boolean isRest,
+                               DeferredResult<?> result, final MultipartResolver multipartResolver,
+                               final ResponseCache responseCache, final String cacheKey,
+                               final CaptureResponse captureResponse) throws InterruptedException {
+        Object asyncAttribute = request.getAttribute(HttpContext.ASYNC_CONTEXT);
+        if (!(asyncAttribute instanceof AsyncContext)) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final Object[] outcome = new Object[2];
+            result.setCallback(mAsyncTimeout, new DeferredResult.Callback() {
+                @Override
+                public void onResult(@Nullable Object output, @Nullable Throwable error) {
+                    outcome[0] = output;
+                    outcome[1] = error;
+                    latch.countDown();
+                }
+            });
+            latch.await();
+            resolveResult(request, response, isRest, outcome[0], (Throwable) outcome[1], responseCache, cacheKey,
+                captureResponse);
+            return false;
+        }
+
+        final AsyncContext asyncContext = (AsyncContext) asyncAttribute;
+        asyncContext.suspend();
+        result.setCallback(mAsyncTimeout, new DeferredResult.Callback() {
+            @Override
+            public void onResult(@Nullable Object output, @Nullable Throwable error) {
+                try {
+                    resolveResult(request, response, isRest, output, error, responseCache, cacheKey,
+                        captureResponse);
+                } finally {
+                    if (request instanceof MultipartRequest) {
+                        multipartResolver.cleanupMultipart((MultipartRequest) request);
+                    }
+                    asyncContext.complete();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Resolve the result of the handler, it is kept like the synchronous response if the response is cacheable.
+     */
+    private void resolveResult(HttpRequest request, HttpResponse response, boolean isRest, Object output,
+                               Throwable error, ResponseCache responseCache, String cacheKey,
+                               CaptureResponse captureResponse) {
+        try {
+            if (error != null) {
+                throw error;
+            }
+            applyTimeout(output);
+            mViewResolver.resolve(new ObjectView(isRest, output), request,
+                captureResponse == null ? response : captureResponse);
+            if (captureResponse != null) {
+                storeResponse(request, response, captureResponse.mBody, cacheKey, responseCache);
+            }
+            evictResponses(response, responseCache);
+            processSession(request, response);
+        } catch (Throwable err) {
+            resolveException(request, response, err);
+        }
+    }
+
+    /**
+     * The chunked body waits for the next chunk as long as the asynchronous result, unless it has its own timeout.
+     */
+    private void applyTimeout(Object output) {
+        if (output instanceof ChunkedBody && ((ChunkedBody) output).getTimeout() <= 0) {
+            ((ChunkedBody) output).setTimeout(mAsyncTimeout);
+        }
+    }
+
+    /**
+     * Keep the successful response which does not set any cookie, the body is read into the memory.
+     */
+    private void storeResponse(HttpRequest request, HttpResponse response, ResponseBody body, String cacheKey,
+                               ResponseCache responseCache) throws IOException {
+        if (response.getStatus() != StatusCode.SC_OK || body == null || body.isChunked() ||
+            !mResponseCache.isCacheable(body.contentLength()) || response.containsHeader(HttpHeaders.SET_COOKIE) ||
+            request.getAttribute(HttpContext.REQUEST_CREATED_SESSION) != null) {
+            return;
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream((int) body.contentLength());
+        body.writeTo(stream);
+        byte[] content = stream.toByteArray();
+        response.setBody(new ByteArrayBody(content, body.contentType()));
+
+        List<String[]> headers = new ArrayList<>();
+        for (String name: new LinkedHashSet<>(response.getHeaderNames())) {
+            if (HttpHeaders.DATE.equalsIgnoreCase(name) || HttpHeaders.CONNECTION.equalsIgnoreCase(name) ||
+                HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name) ||
+                HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) || HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                continue;
+            }
+            for (String value: response.getHeaders(name)) {
+                headers.add(new String[] {name, value});
+            }
+        }
+        mResponseCache.put(cacheKey, new ResponseCacheStore.Entry(response.getStatus(), headers, content,
+            body.contentType(), responseCache.getTags(), responseCache.getTtl()));
+    }
+
+    private void evictResponses(HttpResponse response, ResponseCache responseCache) {
+        if (responseCache == null || response.getStatus() >= StatusCode.SC_BAD_REQUEST) {
+            return;
+        }
+        for (String tag: responseCache.getEvictTags()) {
+            mResponseCache.evict(tag);
+        }
+    }
+
+    private void resolveException(HttpRequest request, HttpResponse response, Throwable err) {
+        try {
+            mResolver.onResolve(request, response, err);
+        } catch (Exception e) {
+            e = new ServerInternalException(e);
+            response.setStatus(StatusCode.SC_INTERNAL_SERVER_ERROR);
+            response.setBody(new StringBody(e.getMessage()));
+        }
+        processSession(request, response);
+    }
+
     private void configMultipart(MultipartResolver multipartResolver) {
         if (mMultipart != null) {
             long allFileMaxSize = mMultipart.getAllFileMaxSize();
@@ -200,16 +461,24 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
     }
 
     /**
-     * Return the {@link RequestHandler} for this request.
+     * Route this request to the adapter and the handler, the adapters are asked in the order of registration.
      *
      * @param request current HTTP request.
      *
-     * @return the {@link RequestHandler}, or {@code null} if no handler could be found.
+     * @return the {@link RouteMatch}, or {@code null} if no adapter could be found.
      */
-    private HandlerAdapter getHandlerAdapter(HttpRequest request) {
+    private RouteMatch getRouteMatch(HttpRequest request) {
+        RouteTrie.Result result = mRouteTrie.match(request.getPath());
+        HandlerAdapter routed = result == null ? null : result.getAdapter();
         for (HandlerAdapter ha: mAdapterList) {
-            if (ha.intercept(request)) {
-                return ha;
+            if (ha == routed) {
+                // The other mapping adapters do not match the path.
+                RouteMatch match = ((MappingAdapter) ha).match(request, result);
+                if (match != null) {
+                    return match;
+                }
+            } else if (!(ha instanceof MappingAdapter) && ha.intercept(request)) {
+                return new RouteMatch(request.getPath(), ha, ha.getHandler(request));
             }
         }
         return null;
@@ -244,8 +513,8 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
         StandardRequest newRequest = (StandardRequest) copyRequest;
         newRequest.setPath(path);
 
-        HandlerAdapter ha = getHandlerAdapter(copyRequest);
-        if (ha == null) {
+        RouteMatch match = getRouteMatch(copyRequest);
+        if (match == null) {
             throw new NotFoundException(request.getPath());
         }
 
@@ -273,4 +542,22 @@ public class DispatcherHandler implements HttpRequestHandler, Register {
             response.addCookie(cookie);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Keep the body which is set by the handler, it is read when the response is cached.
+     */
+    private static class CaptureResponse extends ResponseWrapper {
+
+        private ResponseBody mBody;
+
+        private CaptureResponse(HttpResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setBody(ResponseBody body) {
+            this.mBody = body;
+            super.setBody(body);
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.yanzhenjie.andserver;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ServerSocketFactory;
@@ -97,6 +98,51 @@ public interface Server {
          */
         T sslSocketInitializer(SSLSocketInitializer initializer);
 
+        /**
+         * Assigns the {@link Executor} which runs the connections, the options of the workers are ignored if it is
+         * set. The executor is not shut down with the server.
+         *
+         * @see com.yanzhenjie.andserver.util.Executors#newVirtualThreadExecutor(int)
+         */
+        T executor(Executor executor);
+
+        /**
+         * Specify the transport of the connections, the default is {@link Transport#BLOCKING}.
+         */
+        T transport(Transport transport);
+
+        /**
+         * Specify the count of the worker threads, the default core size is 0 and the default max size is 128.
+         */
+        T workers(int coreSize, int maxSize);
+
+        /**
+         * Specify the capacity of the queue in which the connections wait for a free worker, the default is 0.
+         */
+        T workQueue(int capacity);
+
+        /**
+         * When the workers and the queue are full, the connection is responded with {@code 503} and the {@code
+         * Retry-After} header in seconds, the default is 1.
+         */
+        T retryAfter(int seconds);
+
+        /**
+         * Specify the max length of the queue of the incoming connections, 0 means the system default.
+         */
+        T backlog(int backlog);
+
+        /**
+         * Specify the size of {@code SO_RCVBUF} and {@code SO_SNDBUF} of the sockets, 0 means the system default.
+         */
+        T bufferSize(int receiveSize, int sendSize);
+
+        /**
+         * Compress the text-like responses whose length is not less than {@code minSize} bytes with {@code gzip} or
+         * {@code deflate} if the client accepts, the default is disabled.
+         */
+        T compression(int minSize);
+
         /**
          * Set the server listener.
          */
@@ -148,6 +194,40 @@ public interface Server {
          */
         T sslSocketInitializer(SSLSocketInitializer initializer);
 
+        /**
+         * Specify the count of the worker threads, the default core size is 0 and the default max size is 128.
+         */
+        T workers(int coreSize, int maxSize);
+
+        /**
+         * Specify the capacity of the queue in which the connections wait for a free worker, the default is 0.
+         */
+        T workQueue(int capacity);
+
+        /**
+         * When the workers and the queue are full, the connection is responded with {@code 503} and the {@code
+         * Retry-After} header in seconds, the default is 1.
+         */
+        T retryAfter(int seconds);
+
+        /**
+         * Specify the max length of the queue of the incoming connections, 0 means the system default.
+         */
+        T backlog(int backlog);
+
+        /**
+         * Specify the size of {@code SO_RCVBUF} and {@code SO_SNDBUF} of the sockets, 0 means the system default.
+         */
+        T bufferSize(int receiveSize, int sendSize);
+
+        /**
+         * Assigns the {@link Executor} which runs the connections, the options of the workers are ignored if it is
+         * set. The executor is not shut down with the server.
+         *
+         * @see com.yanzhenjie.andserver.util.Executors#newVirtualThreadExecutor(int)
+         */
+        T executor(Executor executor);
+
         /**
          * Set the server listener.
          */
@@ -159,6 +239,20 @@ public interface Server {
         S build();
     }
 
+    enum Transport {
+
+        /**
+         * Each connection holds a thread until it is closed.
+         */
+        BLOCKING,
+
+        /**
+         * Idle connections are watched by a few selector threads, a handler thread is only taken while a request is
+         * being handled. It does not support {@link SSLContext} and {@link ServerSocketFactory}.
+         */
+        NIO
+    }
+
     interface ServerListener {
 
         /**
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.error;
+
+import com.yanzhenjie.andserver.http.StatusCode;
+
+/**
+ * The asynchronous result of the handler was not set within the timeout.
+ */
+public class AsyncTimeoutException extends HttpException {
+
+    private static final String MESSAGE = "The asynchronous result was not set within %d ms.";
+
+    public AsyncTimeoutException(long timeout) {
+        super(StatusCode.SC_SERVICE_UNAVAILABLE, String.format(MESSAGE, timeout));
+    }
+}
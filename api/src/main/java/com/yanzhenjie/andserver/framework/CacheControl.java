@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.framework.cache.CachePolicy;
+import com.yanzhenjie.andserver.http.HttpRequest;
+
+/**
+ * Provide the {@code Cache-Control} policy of a resource.
+ */
+public interface CacheControl {
+
+    /**
+     * The return value will be sent to the HTTP client as {@code Cache-Control} header, with the response and with
+     * the {@code 304} response.
+     *
+     * @param request current request
+     *
+     * @return the policy of the resource, or null meaning that the response is {@code private} and is revalidated
+     *     according to the {@code ETag} and the {@code Last-Modified}.
+     */
+    @Nullable
+    CachePolicy getCacheControl(@NonNull HttpRequest request) throws Throwable;
+}
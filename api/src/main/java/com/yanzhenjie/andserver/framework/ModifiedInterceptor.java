@@ -20,6 +20,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 
 import com.yanzhenjie.andserver.AndServer;
+import com.yanzhenjie.andserver.framework.cache.CachePolicy;
 import com.yanzhenjie.andserver.framework.handler.RequestHandler;
 import com.yanzhenjie.andserver.http.HttpMethod;
 import com.yanzhenjie.andserver.http.HttpRequest;
@@ -49,7 +50,18 @@ public class ModifiedInterceptor implements HandlerInterceptor {
             } catch (Throwable e) {
                 Log.w(AndServer.TAG, e);
             }
-            return new Modified(request, response).process(eTag, lastModified);
+            String cacheControl = null;
+            if (handler instanceof CacheControl) {
+                try {
+                    CachePolicy policy = ((CacheControl) handler).getCacheControl(request);
+                    if (policy != null) {
+                        cacheControl = policy.toString();
+                    }
+                } catch (Throwable e) {
+                    Log.w(AndServer.TAG, e);
+                }
+            }
+            return new Modified(request, response).process(eTag, lastModified, cacheControl);
         }
         return false;
     }
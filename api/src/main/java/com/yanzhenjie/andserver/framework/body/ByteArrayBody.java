@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.body;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.http.RangeBody;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p> A repeatable body whose content is in the memory, e.g. a cached file. </p>
+ */
+public class ByteArrayBody implements RangeBody {
+
+    private byte[] mBody;
+    private MediaType mMediaType;
+
+    public ByteArrayBody(byte[] body) {
+        this(body, MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    public ByteArrayBody(byte[] body, MediaType mediaType) {
+        if (body == null) {
+            throw new IllegalArgumentException("The content cannot be null.");
+        }
+        this.mBody = body;
+        this.mMediaType = mediaType;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+
+    @Override
+    public long contentLength() {
+        return mBody.length;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return mMediaType;
+    }
+
+    @Override
+    public void writeTo(@NonNull OutputStream output) throws IOException {
+        output.write(mBody);
+        output.flush();
+    }
+
+    @Override
+    public void writeTo(@NonNull OutputStream output, long position, long count) throws IOException {
+        output.write(mBody, (int) position, (int) count);
+        output.flush();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.body;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.http.ResponseBody;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import org.apache.commons.io.Charsets;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> A chunked body which is written by the handler after it returns, e.g. from another thread. </p>
+ *
+ * <pre>
+ * <code>@GetMapping("/log")</code>
+ * public ChunkedBody log() {
+ *     final ChunkedBody body = new ChunkedBody(MediaType.TEXT_PLAIN);
+ *     mExecutor.execute(new Runnable() {
+ *         public void run() {
+ *             body.write("line 1\n");
+ *             ...
+ *             body.complete();
+ *         }
+ *     });
+ *     return body;
+ * }
+ * </pre>
+ *
+ * Each chunk is flushed to the client. At most {@code capacity} chunks wait to be sent, when the client is slower than
+ * the producer, {@link #write(byte[])} blocks. The connection holds a worker thread until {@link #complete()} is
+ * called, or until no chunk is written within the {@link #setTimeout(long) timeout}.
+ *
+ * The body is closed when the response is finished without sending it, e.g. the response of a {@code HEAD} request,
+ * then {@link #write(byte[])} fails.
+ */
+public class ChunkedBody implements ResponseBody, Closeable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final byte[] EOF = new byte[0];
+
+    private final MediaType mMediaType;
+    private final Charset mCharset;
+    private final BlockingQueue<byte[]> mQueue;
+
+    private volatile long mTimeout;
+    private volatile boolean isCompleted;
+    private volatile boolean isClosed;
+
+    public ChunkedBody() {
+        this(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    public ChunkedBody(MediaType mediaType) {
+        this(mediaType, DEFAULT_CAPACITY);
+    }
+
+    public ChunkedBody(MediaType mediaType, int capacity) {
+        this.mMediaType = mediaType;
+        Charset charset = mediaType == null ? null : mediaType.getCharset();
+        this.mCharset = charset == null ? Charsets.toCharset("utf-8") : charset;
+        this.mQueue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return mMediaType;
+    }
+
+    /**
+     * Get the max time to wait for the next chunk.
+     *
+     * @return the time in milliseconds, 0 means the async timeout of the server.
+     */
+    public long getTimeout() {
+        return mTimeout;
+    }
+
+    /**
+     * Set the max time to wait for the next chunk, the connection is closed if no chunk is written within it. The
+     * default is the async timeout of the server, a quiet event stream can be kept open by {@link
+     * SseBody#comment(String)}.
+     *
+     * @param timeout the time in milliseconds.
+     */
+    public void setTimeout(long timeout) {
+        this.mTimeout = timeout;
+    }
+
+    /**
+     * Whether the client has gone or the body has been sent completely, the data can no longer be written.
+     */
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    /**
+     * Write a chunk, it blocks while too many chunks are waiting to be sent.
+     *
+     * @param data the chunk.
+     *
+     * @throws IOException if the body has been completed or the client has gone.
+     */
+    public void write(@NonNull byte[] data) throws IOException {
+        if (isCompleted) {
+            throw new IOException("The body has been completed.");
+        }
+        if (data.length > 0) {
+            offer(data);
+        }
+    }
+
+    /**
+     * Write a chunk in the charset of the content type, the default is {@code utf-8}.
+     *
+     * @param data the chunk.
+     *
+     * @throws IOException if the body has been completed or the client has gone.
+     */
+    public void write(@NonNull String data) throws IOException {
+        write(data.getBytes(mCharset));
+    }
+
+    /**
+     * Finish the body, the last chunk is sent after the pending chunks.
+     */
+    public void complete() {
+        if (isCompleted) {
+            return;
+        }
+        isCompleted = true;
+        try {
+            offer(EOF);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void offer(byte[] data) throws IOException {
+        try {
+            while (!mQueue.offer(data, 1, TimeUnit.SECONDS)) {
+                if (isClosed) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (isClosed) {
+            throw new IOException("The connection has been closed.");
+        }
+    }
+
+    @Override
+    public void writeTo(@NonNull OutputStream output) throws IOException {
+        long timeout = mTimeout;
+        try {
+            while (true) {
+                byte[] chunk = timeout > 0 ? mQueue.poll(timeout, TimeUnit.MILLISECONDS) : mQueue.take();
+                if (chunk == null) {
+                    throw new InterruptedIOException(String.format("No chunk was written within %d ms.", timeout));
+                }
+                if (chunk == EOF) {
+                    break;
+                }
+                output.write(chunk);
+                output.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * The response has been finished, the chunks which are written later are rejected.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        mQueue.clear();
+    }
+}
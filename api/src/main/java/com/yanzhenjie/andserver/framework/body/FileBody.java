@@ -18,28 +18,39 @@ package com.yanzhenjie.andserver.framework.body;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.yanzhenjie.andserver.http.ResponseBody;
+import com.yanzhenjie.andserver.http.FileChannelOutput;
+import com.yanzhenjie.andserver.http.RangeBody;
 import com.yanzhenjie.andserver.util.IOUtils;
 import com.yanzhenjie.andserver.util.MediaType;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * Created by Zhenjie Yan on 2018/8/6.
  */
-public class FileBody implements ResponseBody {
+public class FileBody implements RangeBody {
 
     private File mBody;
+    private MediaType mMediaType;
+    private FileInputStream mRangeStream;
 
     public FileBody(File body) {
+        this(body, null);
+    }
+
+    /**
+     * Create a body whose content type is not derived from the name of the file, e.g. a precompressed file.
+     */
+    public FileBody(File body, @Nullable MediaType mediaType) {
         if (body == null) {
             throw new IllegalArgumentException("The file cannot be null.");
         }
         this.mBody = body;
+        this.mMediaType = mediaType;
     }
 
     @Override
@@ -60,13 +71,44 @@ public class FileBody implements ResponseBody {
     @Nullable
     @Override
     public MediaType contentType() {
+        if (mMediaType != null) {
+            return mMediaType;
+        }
         return MediaType.getFileMediaType(mBody.getName());
     }
 
     @Override
     public void writeTo(@NonNull OutputStream output) throws IOException {
-        InputStream is = new FileInputStream(mBody);
-        IOUtils.write(is, output);
-        IOUtils.closeQuietly(is);
+        FileInputStream is = new FileInputStream(mBody);
+        try {
+            if (output instanceof FileChannelOutput) {
+                FileChannel channel = is.getChannel();
+                ((FileChannelOutput) output).transferFrom(channel, 0, channel.size());
+            } else {
+                IOUtils.write(is, output);
+            }
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    @Override
+    public void writeTo(@NonNull OutputStream output, long position, long count) throws IOException {
+        if (mRangeStream == null) {
+            mRangeStream = new FileInputStream(mBody);
+        }
+        FileChannel channel = mRangeStream.getChannel();
+        if (output instanceof FileChannelOutput) {
+            ((FileChannelOutput) output).transferFrom(channel, position, count);
+        } else {
+            channel.position(position);
+            IOUtils.write(mRangeStream, output, count);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.closeQuietly(mRangeStream);
+        mRangeStream = null;
     }
 }
\ No newline at end of file
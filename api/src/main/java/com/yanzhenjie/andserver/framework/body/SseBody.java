@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.body;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.util.MediaType;
+
+import org.apache.commons.io.Charsets;
+
+import java.io.IOException;
+
+/**
+ * <p> A body of the server-sent events, each event is sent to the client once it is written. </p>
+ *
+ * <pre>
+ * <code>@GetMapping("/events")</code>
+ * public SseBody events(HttpResponse response) {
+ *     response.setHeader("Cache-Control", "no-cache");
+ *     SseBody body = new SseBody();
+ *     mEmitters.add(body);
+ *     return body;
+ * }
+ *
+ * // Some time later, in any thread.
+ * body.send("update", "Hello");
+ * </pre>
+ */
+public class SseBody extends ChunkedBody {
+
+    public SseBody() {
+        super(new MediaType(MediaType.TEXT_EVENT_STREAM, Charsets.toCharset("utf-8")));
+    }
+
+    public SseBody(int capacity) {
+        super(new MediaType(MediaType.TEXT_EVENT_STREAM, Charsets.toCharset("utf-8")), capacity);
+    }
+
+    /**
+     * Send an event without name.
+     *
+     * @param data the data of the event, it can contain several lines.
+     */
+    public void send(@NonNull String data) throws IOException {
+        send(null, null, data);
+    }
+
+    /**
+     * Send an event.
+     *
+     * @param event the name of the event.
+     * @param data the data of the event, it can contain several lines.
+     */
+    public void send(@Nullable String event, @NonNull String data) throws IOException {
+        send(null, event, data);
+    }
+
+    /**
+     * Send an event.
+     *
+     * @param id the id of the event, the client sends it back in the {@code Last-Event-ID} header when reconnecting.
+     * @param event the name of the event.
+     * @param data the data of the event, it can contain several lines.
+     */
+    public void send(@Nullable String id, @Nullable String event, @NonNull String data) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        if (id != null) {
+            builder.append("id: ").append(id).append('\n');
+        }
+        if (event != null) {
+            builder.append("event: ").append(event).append('\n');
+        }
+        for (String line: data.split("\r\n|\r|\n", -1)) {
+            builder.append("data: ").append(line).append('\n');
+        }
+        builder.append('\n');
+        write(builder.toString());
+    }
+
+    /**
+     * Send a comment, it is ignored by the client and usually used to keep the connection alive.
+     *
+     * @param comment the comment.
+     */
+    public void comment(@NonNull String comment) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (String line: comment.split("\r\n|\r|\n", -1)) {
+            builder.append(": ").append(line).append('\n');
+        }
+        builder.append('\n');
+        write(builder.toString());
+    }
+
+    /**
+     * Tell the client how long to wait before reconnecting.
+     *
+     * @param millis the time in milliseconds.
+     */
+    public void retry(long millis) throws IOException {
+        write("retry: " + millis + "\n\n");
+    }
+}
@@ -18,7 +18,7 @@ package com.yanzhenjie.andserver.framework.body;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
-import com.yanzhenjie.andserver.http.ResponseBody;
+import com.yanzhenjie.andserver.http.RangeBody;
 import com.yanzhenjie.andserver.util.IOUtils;
 import com.yanzhenjie.andserver.util.MediaType;
 
@@ -30,12 +30,13 @@ import java.io.OutputStream;
 /**
  * Created by Zhenjie Yan on 2018/9/7.
  */
-public class StreamBody implements ResponseBody {
+public class StreamBody implements RangeBody {
 
     private InputStream mStream;
     private boolean mChunked;
     private long mLength;
     private MediaType mMediaType;
+    private long mPosition;
 
     public StreamBody(InputStream stream) {
         this(stream, MediaType.APPLICATION_OCTET_STREAM);
@@ -94,4 +95,20 @@ public class StreamBody implements ResponseBody {
         IOUtils.write(mStream, output);
         IOUtils.closeQuietly(mStream);
     }
+
+    @Override
+    public void writeTo(@NonNull OutputStream output, long position, long count) throws IOException {
+        if (position < mPosition) {
+            throw new IOException("The stream cannot be read backwards.");
+        }
+        IOUtils.skip(mStream, position - mPosition);
+        mPosition = position;
+        IOUtils.write(mStream, output, count);
+        mPosition += count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOUtils.closeQuietly(mStream);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.cache;
+
+import androidx.annotation.NonNull;
+
+/**
+ * <p> The directives of the {@code Cache-Control} of the response. </p>
+ *
+ * The response is {@code private} unless it is {@link #setPublic(boolean) public}, the negative times are omitted.
+ */
+public class CachePolicy {
+
+    /**
+     * One year in seconds, the max age of the fingerprinted assets.
+     */
+    public static final long ONE_YEAR = 365L * 24 * 60 * 60;
+
+    /**
+     * The response must be revalidated before every use.
+     */
+    @NonNull
+    public static CachePolicy noCache() {
+        CachePolicy policy = new CachePolicy();
+        policy.setNoCache(true);
+        return policy;
+    }
+
+    /**
+     * The response is fresh for the max age.
+     *
+     * @param maxAge the max age in seconds.
+     */
+    @NonNull
+    public static CachePolicy maxAge(long maxAge) {
+        CachePolicy policy = new CachePolicy();
+        policy.setMaxAge(maxAge);
+        return policy;
+    }
+
+    /**
+     * The response never changes, e.g. the assets whose names contain the digest of the content.
+     */
+    @NonNull
+    public static CachePolicy immutable() {
+        CachePolicy policy = new CachePolicy();
+        policy.setPublic(true);
+        policy.setMaxAge(ONE_YEAR);
+        policy.setImmutable(true);
+        return policy;
+    }
+
+    private long maxAge = -1;
+    private boolean isPublic;
+    private boolean noCache;
+    private boolean noStore;
+    private boolean mustRevalidate;
+    private boolean immutable;
+    private long staleWhileRevalidate = -1;
+
+    public CachePolicy() {
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public void setPublic(boolean isPublic) {
+        this.isPublic = isPublic;
+    }
+
+    public boolean isNoCache() {
+        return noCache;
+    }
+
+    public void setNoCache(boolean noCache) {
+        this.noCache = noCache;
+    }
+
+    public boolean isNoStore() {
+        return noStore;
+    }
+
+    public void setNoStore(boolean noStore) {
+        this.noStore = noStore;
+    }
+
+    public boolean isMustRevalidate() {
+        return mustRevalidate;
+    }
+
+    public void setMustRevalidate(boolean mustRevalidate) {
+        this.mustRevalidate = mustRevalidate;
+    }
+
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    public void setImmutable(boolean immutable) {
+        this.immutable = immutable;
+    }
+
+    public long getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+        this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    /**
+     * Get the value of the {@code Cache-Control} header.
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(isPublic ? "public" : "private");
+        if (noCache) {
+            builder.append(", no-cache");
+        }
+        if (noStore) {
+            builder.append(", no-store");
+        }
+        if (maxAge >= 0) {
+            builder.append(", max-age=").append(maxAge);
+        }
+        if (mustRevalidate) {
+            builder.append(", must-revalidate");
+        }
+        if (immutable) {
+            builder.append(", immutable");
+        }
+        if (staleWhileRevalidate >= 0) {
+            builder.append(", stale-while-revalidate=").append(staleWhileRevalidate);
+        }
+        return builder.toString();
+    }
+}
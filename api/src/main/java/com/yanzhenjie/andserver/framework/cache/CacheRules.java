@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.util.Assert;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * <p> The rules which select the {@link CachePolicy} of the static resources, the first matched rule is used. </p>
+ *
+ * <pre>
+ * CacheRules rules = new CacheRules();
+ * rules.addFingerprinted(CachePolicy.immutable());
+ * rules.addPath("/static/**", CachePolicy.maxAge(3600));
+ * rules.addMediaType(MediaType.TEXT_HTML, CachePolicy.noCache());
+ * website.setCacheRules(rules);
+ * </pre>
+ */
+public class CacheRules {
+
+    /**
+     * The name which contains the hex digest of the content, e.g. {@code app.3f2a9c1b.js} or {@code app-3f2a9c1b.js}.
+     * The digest contains at least one letter, so a date such as {@code report-20200307.pdf} is not matched.
+     */
+    private static final Pattern FINGERPRINT = Pattern.compile(
+        "(^|.*/)[^/]+[.-](?=[0-9]*[a-fA-F])[0-9a-fA-F]{8,}\\.[^/]+");
+
+    private final List<Rule> mRules = new CopyOnWriteArrayList<>();
+
+    public CacheRules() {
+    }
+
+    /**
+     * Add a rule of the path.
+     *
+     * @param pattern the pattern of the path, {@code *} matches the characters except {@code /} and {@code **} matches
+     *     all the characters. A pattern without {@code /} matches the name of the file, e.g. {@code *.js}.
+     * @param policy the policy of the matched resources.
+     */
+    public void addPath(@NonNull String pattern, @NonNull CachePolicy policy) {
+        Assert.hasText(pattern, "The pattern cannot be empty.");
+        Assert.notNull(policy, "The policy cannot be null.");
+
+        String regex = toRegex(pattern);
+        if (pattern.indexOf('/') == -1) {
+            regex = "(^|.*/)" + regex;
+        }
+        mRules.add(new Rule(Pattern.compile(regex), null, policy));
+    }
+
+    /**
+     * Add a rule of the media type.
+     *
+     * @param mediaType the media type, it can be a wildcard type, e.g. {@code image/*}.
+     * @param policy the policy of the matched resources.
+     */
+    public void addMediaType(@NonNull MediaType mediaType, @NonNull CachePolicy policy) {
+        Assert.notNull(mediaType, "The mediaType cannot be null.");
+        Assert.notNull(policy, "The policy cannot be null.");
+        mRules.add(new Rule(null, mediaType, policy));
+    }
+
+    /**
+     * Add a rule of the fingerprinted resources, whose names contain the hex digest of the content, e.g. {@code
+     * app.3f2a9c1b.js}. They can be cached for a long time, see {@link CachePolicy#immutable()}.
+     *
+     * @param policy the policy of the matched resources.
+     */
+    public void addFingerprinted(@NonNull CachePolicy policy) {
+        Assert.notNull(policy, "The policy cannot be null.");
+        mRules.add(new Rule(FINGERPRINT, null, policy));
+    }
+
+    /**
+     * Add a rule of the fingerprinted resources whose names are in the format of the build, e.g. the digests which
+     * contain only the digits.
+     *
+     * @param regex the regular expression which matches the whole path, e.g. {@code .*\.[0-9a-f]{20}\.js}.
+     * @param policy the policy of the matched resources.
+     */
+    public void addFingerprinted(@NonNull String regex, @NonNull CachePolicy policy) {
+        Assert.hasText(regex, "The regex cannot be empty.");
+        Assert.notNull(policy, "The policy cannot be null.");
+        mRules.add(new Rule(Pattern.compile(regex), null, policy));
+    }
+
+    /**
+     * Find the policy of the resource.
+     *
+     * @param path the path of the resource.
+     * @param mediaType the media type of the resource, or null if it is unknown.
+     *
+     * @return the policy of the first matched rule, or null if no rule matches.
+     */
+    @Nullable
+    public CachePolicy match(@NonNull String path, @Nullable MediaType mediaType) {
+        for (Rule rule: mRules) {
+            if (rule.mPattern != null) {
+                if (rule.mPattern.matcher(path).matches()) {
+                    return rule.mPolicy;
+                }
+            } else if (mediaType != null && rule.mMediaType.includes(mediaType)) {
+                return rule.mPolicy;
+            }
+        }
+        return null;
+    }
+
+    private static String toRegex(String pattern) {
+        StringBuilder builder = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c != '*' && c != '?') {
+                continue;
+            }
+            if (start < i) {
+                builder.append(Pattern.quote(pattern.substring(start, i)));
+            }
+            if (c == '?') {
+                builder.append("[^/]");
+            } else if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+                builder.append(".*");
+                i++;
+            } else {
+                builder.append("[^/]*");
+            }
+            start = i + 1;
+        }
+        if (start < pattern.length()) {
+            builder.append(Pattern.quote(pattern.substring(start)));
+        }
+        return builder.toString();
+    }
+
+    private static class Rule {
+
+        private final Pattern mPattern;
+        private final MediaType mMediaType;
+        private final CachePolicy mPolicy;
+
+        private Rule(Pattern pattern, MediaType mediaType, CachePolicy policy) {
+            this.mPattern = pattern;
+            this.mMediaType = mediaType;
+            this.mPolicy = policy;
+        }
+    }
+}
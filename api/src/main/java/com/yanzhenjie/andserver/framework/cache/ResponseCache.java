@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.cache;
+
+import androidx.annotation.NonNull;
+
+import com.yanzhenjie.andserver.http.HttpHeaders;
+import com.yanzhenjie.andserver.http.HttpRequest;
+import com.yanzhenjie.andserver.util.MultiValueMap;
+import com.yanzhenjie.andserver.util.UrlCoder;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p> The caching of the responses of a handler, see {@link ResponseCacheStore}. </p>
+ */
+public class ResponseCache {
+
+    /**
+     * The default time (in seconds) the response is kept.
+     */
+    public static final long DEFAULT_TTL = 60;
+
+    private long ttl = -1;
+    private String[] headers = new String[0];
+    private String[] tags = new String[0];
+    private String[] evictTags = new String[0];
+
+    public ResponseCache() {
+    }
+
+    /**
+     * Get the time (in seconds) the response is kept, 0 or a negative value means the response is not cached.
+     */
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    @NonNull
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(@NonNull String[] headers) {
+        this.headers = headers;
+    }
+
+    @NonNull
+    public String[] getTags() {
+        return tags;
+    }
+
+    public void setTags(@NonNull String[] tags) {
+        this.tags = tags;
+    }
+
+    /**
+     * Get the tags of the responses which are evicted after the handler succeeds.
+     */
+    @NonNull
+    public String[] getEvictTags() {
+        return evictTags;
+    }
+
+    public void setEvictTags(@NonNull String[] evictTags) {
+        this.evictTags = evictTags;
+    }
+
+    /**
+     * Whether the response of the request can be shared with the other callers. The request which carries the
+     * credentials of the caller, e.g. the cookie of the session, is only cacheable if the header is part of the key.
+     */
+    public boolean isCacheable(@NonNull HttpRequest request) {
+        return isSelected(request, HttpHeaders.COOKIE) && isSelected(request, HttpHeaders.AUTHORIZATION);
+    }
+
+    private boolean isSelected(HttpRequest request, String name) {
+        if (request.getHeader(name) == null) {
+            return true;
+        }
+        for (String header: headers) {
+            if (name.equalsIgnoreCase(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the key of the response of the request, it consists of the path, the query in the order of the names and the
+     * selected headers. The components are encoded, so the separators in them cannot make two requests share a key.
+     */
+    @NonNull
+    public String getKey(@NonNull HttpRequest request) {
+        StringBuilder builder = new StringBuilder(encode(request.getPath()));
+
+        MultiValueMap<String, String> query = request.getQuery();
+        if (!query.isEmpty()) {
+            char separator = '?';
+            Map<String, List<String>> sortedQuery = new TreeMap<>(query);
+            for (Map.Entry<String, List<String>> entry: sortedQuery.entrySet()) {
+                List<String> values = entry.getValue();
+                String name = encode(entry.getKey());
+                if (values == null || values.isEmpty()) {
+                    builder.append(separator).append(name);
+                    separator = '&';
+                    continue;
+                }
+                for (String value: values) {
+                    builder.append(separator).append(name).append('=').append(encode(value));
+                    separator = '&';
+                }
+            }
+        }
+
+        for (String header: headers) {
+            builder.append('\n').append(encode(header.toLowerCase(Locale.ENGLISH))).append(':');
+            char separator = '=';
+            for (String value: request.getHeaders(header)) {
+                builder.append(separator).append(encode(value));
+                separator = ',';
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String encode(String text) {
+        return text == null ? "" : UrlCoder.urlEncode(text, "utf-8");
+    }
+}
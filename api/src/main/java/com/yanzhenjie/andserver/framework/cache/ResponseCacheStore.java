@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.cache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.framework.body.ByteArrayBody;
+import com.yanzhenjie.andserver.http.HttpResponse;
+import com.yanzhenjie.andserver.util.Assert;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> The memory of the cached responses, see {@link com.yanzhenjie.andserver.annotation.ResponseCache}. </p>
+ *
+ * The responses expire after their time to live, the least recently used responses are evicted when the size of the
+ * store exceeds the limit. The store can be obtained from the attribute {@link
+ * com.yanzhenjie.andserver.http.HttpContext#RESPONSE_CACHE} of the request to evict the responses explicitly.
+ */
+public class ResponseCacheStore {
+
+    private final long mMaxSize;
+    private final int mMaxEntrySize;
+    private final LinkedHashMap<String, Entry> mEntryMap = new LinkedHashMap<>(16, 0.75F, true);
+    private final Map<String, Set<String>> mTagMap = new HashMap<>();
+
+    private long mSize;
+
+    /**
+     * Create a store.
+     *
+     * @param maxSize the max total size of the cached bodies in bytes.
+     * @param maxEntrySize the max size of a cached body in bytes, the larger responses are not cached.
+     */
+    public ResponseCacheStore(long maxSize, int maxEntrySize) {
+        Assert.isTrue(maxSize > 0, "The maxSize must be greater than 0.");
+        Assert.isTrue(maxEntrySize > 0 && maxEntrySize <= maxSize,
+            "The maxEntrySize must be greater than 0 and not greater than the maxSize.");
+
+        this.mMaxSize = maxSize;
+        this.mMaxEntrySize = maxEntrySize;
+    }
+
+    /**
+     * Whether a body of the given length can be cached.
+     */
+    public boolean isCacheable(long length) {
+        return length >= 0 && length <= mMaxEntrySize;
+    }
+
+    /**
+     * Get the response of the key.
+     *
+     * @return the response, or null if it is not cached or has expired.
+     */
+    @Nullable
+    public synchronized Entry get(@NonNull String key) {
+        Entry entry = mEntryMap.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Put the response of the key, the previous one is replaced.
+     */
+    public synchronized void put(@NonNull String key, @NonNull Entry entry) {
+        if (!isCacheable(entry.mBody.length)) {
+            return;
+        }
+
+        remove(key);
+        mEntryMap.put(key, entry);
+        mSize += entry.mBody.length;
+        for (String tag: entry.mTags) {
+            Set<String> keys = mTagMap.get(tag);
+            if (keys == null) {
+                keys = new HashSet<>();
+                mTagMap.put(tag, keys);
+            }
+            keys.add(key);
+        }
+
+        Iterator<Map.Entry<String, Entry>> iterator = mEntryMap.entrySet().iterator();
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            onRemoved(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * Remove the response of the key.
+     */
+    public synchronized void remove(@NonNull String key) {
+        Entry entry = mEntryMap.remove(key);
+        if (entry != null) {
+            onRemoved(key, entry);
+        }
+    }
+
+    /**
+     * Remove the responses of the tag.
+     */
+    public synchronized void evict(@NonNull String tag) {
+        Set<String> keys = mTagMap.remove(tag);
+        if (keys != null) {
+            for (String key: new ArrayList<>(keys)) {
+                remove(key);
+            }
+        }
+    }
+
+    /**
+     * Remove all the responses.
+     */
+    public synchronized void clear() {
+        mEntryMap.clear();
+        mTagMap.clear();
+        mSize = 0;
+    }
+
+    /**
+     * Get the total size of the cached bodies in bytes.
+     */
+    public synchronized long size() {
+        return mSize;
+    }
+
+    private void onRemoved(String key, Entry entry) {
+        mSize -= entry.mBody.length;
+        for (String tag: entry.mTags) {
+            Set<String> keys = mTagMap.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    mTagMap.remove(tag);
+                }
+            }
+        }
+    }
+
+    /**
+     * A cached response.
+     */
+    public static class Entry {
+
+        private final int mStatus;
+        private final List<String[]> mHeaders;
+        private final byte[] mBody;
+        private final MediaType mMediaType;
+        private final String[] mTags;
+        private final long mExpiresAt;
+
+        /**
+         * Create a response.
+         *
+         * @param status the status code.
+         * @param headers the names and the values of the headers.
+         * @param body the content of the body.
+         * @param mediaType the type of the body.
+         * @param tags the tags of the response.
+         * @param ttl the time to live in seconds.
+         */
+        public Entry(int status, @NonNull List<String[]> headers, @NonNull byte[] body, @Nullable MediaType mediaType,
+                     @NonNull String[] tags, long ttl) {
+            this.mStatus = status;
+            this.mHeaders = headers;
+            this.mBody = body;
+            this.mMediaType = mediaType;
+            this.mTags = tags;
+            this.mExpiresAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(ttl);
+        }
+
+        public boolean isExpired() {
+            return System.nanoTime() - mExpiresAt >= 0;
+        }
+
+        /**
+         * Write the status and the headers to the response.
+         *
+         * @return the body of the response.
+         */
+        @NonNull
+        public ByteArrayBody replay(@NonNull HttpResponse response) {
+            response.setStatus(mStatus);
+            Set<String> names = new HashSet<>();
+            for (String[] header: mHeaders) {
+                if (names.add(header[0])) {
+                    response.setHeader(header[0], header[1]);
+                } else {
+                    response.addHeader(header[0], header[1]);
+                }
+            }
+            return new ByteArrayBody(mBody, mMediaType);
+        }
+    }
+}
@@ -15,10 +15,13 @@
  */
 package com.yanzhenjie.andserver.framework.config;
 
+import com.yanzhenjie.andserver.framework.cache.ResponseCacheStore;
 import com.yanzhenjie.andserver.framework.website.Website;
+import com.yanzhenjie.andserver.http.session.SessionSerializer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Zhenjie Yan on 2019-06-30.
@@ -31,6 +34,11 @@ public class Delegate implements WebConfig.Delegate {
 
     private Multipart mMultipart;
     private List<Website> mWebsites;
+    private long mAsyncTimeout;
+    private long mSessionTimeout;
+    private long mSessionSweepInterval;
+    private SessionSerializer mSessionSerializer;
+    private ResponseCacheStore mResponseCache;
 
     private Delegate() {
         mWebsites = new ArrayList<>();
@@ -53,4 +61,49 @@ public class Delegate implements WebConfig.Delegate {
     public void addWebsite(Website website) {
         mWebsites.add(website);
     }
+
+    public long getAsyncTimeout() {
+        return mAsyncTimeout;
+    }
+
+    @Override
+    public void setAsyncTimeout(long timeout, TimeUnit timeUnit) {
+        mAsyncTimeout = timeUnit.toMillis(timeout);
+    }
+
+    public long getSessionTimeout() {
+        return mSessionTimeout;
+    }
+
+    @Override
+    public void setSessionTimeout(long timeout, TimeUnit timeUnit) {
+        mSessionTimeout = timeUnit.toMillis(timeout);
+    }
+
+    public long getSessionSweepInterval() {
+        return mSessionSweepInterval;
+    }
+
+    @Override
+    public void setSessionSweepInterval(long interval, TimeUnit timeUnit) {
+        mSessionSweepInterval = timeUnit.toMillis(interval);
+    }
+
+    public SessionSerializer getSessionSerializer() {
+        return mSessionSerializer;
+    }
+
+    @Override
+    public void setSessionSerializer(SessionSerializer serializer) {
+        mSessionSerializer = serializer;
+    }
+
+    public ResponseCacheStore getResponseCache() {
+        return mResponseCache;
+    }
+
+    @Override
+    public void setResponseCache(ResponseCacheStore store) {
+        mResponseCache = store;
+    }
 }
@@ -19,7 +19,11 @@ import android.content.Context;
 
 import androidx.annotation.WorkerThread;
 
+import com.yanzhenjie.andserver.framework.cache.ResponseCacheStore;
 import com.yanzhenjie.andserver.framework.website.Website;
+import com.yanzhenjie.andserver.http.session.SessionSerializer;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Zhenjie Yan on 2019-06-28.
@@ -54,5 +58,31 @@ public interface WebConfig {
          *
          */
         void addWebsite(Website website);
+
+        /**
+         * Set the timeout of the asynchronous result, the default is 30 seconds.
+         */
+        void setAsyncTimeout(long timeout, TimeUnit timeUnit);
+
+        /**
+         * Set the max inactive interval of the new sessions, by default the sessions do not expire.
+         */
+        void setSessionTimeout(long timeout, TimeUnit timeUnit);
+
+        /**
+         * Set the interval between the removals of the expired sessions, the default is 1 minute.
+         */
+        void setSessionSweepInterval(long interval, TimeUnit timeUnit);
+
+        /**
+         * Set the format of the stored sessions, the default is
+         * {@link com.yanzhenjie.andserver.http.session.BinarySessionSerializer}.
+         */
+        void setSessionSerializer(SessionSerializer serializer);
+
+        /**
+         * Set the store of the cached responses, the default keeps 4MB of the responses.
+         */
+        void setResponseCache(ResponseCacheStore store);
     }
 }
\ No newline at end of file
@@ -28,7 +28,6 @@ import com.yanzhenjie.andserver.error.ParamValidateException;
 import com.yanzhenjie.andserver.framework.mapping.Mapping;
 import com.yanzhenjie.andserver.framework.mapping.Mime;
 import com.yanzhenjie.andserver.framework.mapping.Pair;
-import com.yanzhenjie.andserver.framework.mapping.Path;
 import com.yanzhenjie.andserver.http.HttpContext;
 import com.yanzhenjie.andserver.http.HttpMethod;
 import com.yanzhenjie.andserver.http.HttpRequest;
@@ -36,6 +35,7 @@ import com.yanzhenjie.andserver.util.MediaType;
 import com.yanzhenjie.andserver.util.Patterns;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -44,14 +44,26 @@ import java.util.Map;
  */
 public abstract class MappingAdapter implements HandlerAdapter, Patterns {
 
+    private volatile RouteTrie mRouteTrie;
+
     @Override
     public boolean intercept(@NonNull HttpRequest request) {
-        List<Path.Segment> pathSegments = Path.pathToList(request.getPath());
-
-        List<Mapping> mappings = getExactMappings(pathSegments);
-        if (mappings.isEmpty()) {
-            mappings = getBlurredMappings(pathSegments);
+        RouteTrie.Result result = getRouteTrie().match(request.getPath());
+        if (result == null) {
+            return false;
         }
+        return intercept(request, result.getMappings());
+    }
+
+    /**
+     * Whether to intercept the current request with the mappings that already match the path.
+     *
+     * @param request current request.
+     * @param mappings the mappings of this adapter that match the path of the request.
+     *
+     * @return returns true, otherwise false.
+     */
+    public boolean intercept(@NonNull HttpRequest request, @NonNull List<Mapping> mappings) {
         if (mappings.isEmpty()) {
             return false;
         }
@@ -95,13 +107,28 @@ public abstract class MappingAdapter implements HandlerAdapter, Patterns {
     @Nullable
     @Override
     public RequestHandler getHandler(@NonNull HttpRequest request) {
-        List<Path.Segment> pathSegments = Path.pathToList(request.getPath());
+        Object match = request.getAttribute(HttpContext.ROUTE_MATCH);
+        if (match instanceof RouteMatch && ((RouteMatch) match).isMatched(this, request.getPath())) {
+            return ((RouteMatch) match).getHandler();
+        }
 
-        List<Mapping> mappings = getExactMappings(pathSegments);
-        if (mappings.isEmpty()) {
-            mappings = getBlurredMappings(pathSegments);
+        RouteTrie.Result result = getRouteTrie().match(request.getPath());
+        if (result == null) {
+            return null;
         }
+        return getHandler(request, result.getMappings());
+    }
 
+    /**
+     * Get the handler that handles the current request with the mappings that already match the path.
+     *
+     * @param request current request.
+     * @param mappings the mappings of this adapter that match the path of the request.
+     *
+     * @return the handler to handle current request.
+     */
+    @Nullable
+    public RequestHandler getHandler(@NonNull HttpRequest request, @NonNull List<Mapping> mappings) {
         HttpMethod method = request.getMethod();
         Mapping mapping = MappingAdapter.findMappingByMethod(mappings, method);
 
@@ -113,78 +140,67 @@ public abstract class MappingAdapter implements HandlerAdapter, Patterns {
             return null;
         }
 
-        Mime mime = mapping.getProduce();
-        if (mime != null) {
-            List<Mime.Rule> produces = mime.getRuleList();
-            MediaType mediaType = null;
-            for (Mime.Rule produce: produces) {
-                String text = produce.toString();
-                if (!text.startsWith("!")) {
-                    mediaType = produce;
-                    break;
-                }
-            }
-            request.setAttribute(HttpContext.RESPONSE_PRODUCE_TYPE, mediaType);
+        if (mapping.getProduce() != null) {
+            request.setAttribute(HttpContext.RESPONSE_PRODUCE_TYPE, findProduce(mapping));
         }
-
         return getMappingMap().get(mapping);
     }
 
-    private List<Mapping> getExactMappings(List<Path.Segment> httpSegments) {
-        List<Mapping> mappings = new ArrayList<>();
-
-        Map<Mapping, RequestHandler> mappingMap = getMappingMap();
-        for (Mapping mapping: mappingMap.keySet()) {
-            Path path = mapping.getPath();
-            List<Path.Rule> rules = path.getRuleList();
-            for (Path.Rule rule: rules) {
-                if (matchExactPath(rule.getSegments(), httpSegments)) {
-                    mappings.add(mapping);
-                }
-            }
+    /**
+     * Validate the request and resolve the handler, the produce type and the path variables in one pass.
+     *
+     * @param request current request.
+     * @param result the result of matching the path of the request, the adapter of it must be this adapter.
+     *
+     * @return the {@link RouteMatch}, or {@code null} if this adapter does not intercept the request.
+     */
+    @Nullable
+    public RouteMatch match(@NonNull HttpRequest request, @NonNull RouteTrie.Result result) {
+        List<Mapping> mappings = result.getMappings();
+        if (!intercept(request, mappings)) {
+            return null;
         }
-        return mappings;
-    }
 
-    private boolean matchExactPath(List<Path.Segment> segments, List<Path.Segment> httpSegments) {
-        if (httpSegments.size() != segments.size()) {
-            return false;
+        String path = request.getPath();
+        Mapping mapping = MappingAdapter.findMappingByMethod(mappings, request.getMethod());
+        if (mapping == null) {
+            // Only the OPTIONS request reaches here, the others have been rejected by intercept().
+            RequestHandler handler = new OptionsHandler(request, mappings, getMappingMap());
+            return new RouteMatch(path, this, mappings, null, handler, null, Collections.<String, String>emptyMap());
         }
 
-        if (Path.listToPath(segments).equals(Path.listToPath(httpSegments))) {
-            return true;
-        }
-        return false;
+        RequestHandler handler = getMappingMap().get(mapping);
+        MediaType produce = findProduce(mapping);
+        Map<String, String> pathVariables = result.getPathVariables(mapping);
+        return new RouteMatch(path, this, mappings, mapping, handler, produce, pathVariables);
     }
 
-    private List<Mapping> getBlurredMappings(List<Path.Segment> httpSegments) {
-        List<Mapping> mappings = new ArrayList<>();
+    @Nullable
+    private static MediaType findProduce(Mapping mapping) {
+        Mime mime = mapping.getProduce();
+        if (mime == null) {
+            return null;
+        }
 
-        Map<Mapping, RequestHandler> mappingMap = getMappingMap();
-        for (Mapping mapping: mappingMap.keySet()) {
-            Path path = mapping.getPath();
-            List<Path.Rule> rules = path.getRuleList();
-            for (Path.Rule rule: rules) {
-                if (matchBlurredPath(rule.getSegments(), httpSegments)) {
-                    mappings.add(mapping);
-                }
+        for (Mime.Rule produce: mime.getRuleList()) {
+            String text = produce.toString();
+            if (!text.startsWith("!")) {
+                return produce;
             }
         }
-        return mappings;
+        return null;
     }
 
-    private boolean matchBlurredPath(List<Path.Segment> segments, List<Path.Segment> httpSegments) {
-        if (httpSegments.size() != segments.size()) {
-            return false;
-        }
-
-        for (int i = 0; i < segments.size(); i++) {
-            Path.Segment segment = segments.get(i);
-            if (!segment.equals(httpSegments.get(i)) && !segment.isBlurred()) {
-                return false;
-            }
+    /**
+     * Get the trie of the mappings of this adapter, it is built at the first time.
+     */
+    private RouteTrie getRouteTrie() {
+        RouteTrie routeTrie = mRouteTrie;
+        if (routeTrie == null) {
+            routeTrie = new RouteTrie.Builder().addAdapter(this).build();
+            mRouteTrie = routeTrie;
         }
-        return true;
+        return routeTrie;
     }
 
     private void validateParams(Pair param, HttpRequest request) {
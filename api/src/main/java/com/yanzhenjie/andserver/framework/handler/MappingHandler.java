@@ -20,15 +20,19 @@ import android.text.TextUtils;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.yanzhenjie.andserver.framework.CacheControl;
 import com.yanzhenjie.andserver.framework.ETag;
 import com.yanzhenjie.andserver.framework.LastModified;
 import com.yanzhenjie.andserver.framework.body.StringBody;
+import com.yanzhenjie.andserver.framework.cache.CachePolicy;
+import com.yanzhenjie.andserver.framework.cache.ResponseCache;
 import com.yanzhenjie.andserver.framework.cross.CrossOrigin;
 import com.yanzhenjie.andserver.framework.mapping.Addition;
 import com.yanzhenjie.andserver.framework.mapping.Mapping;
 import com.yanzhenjie.andserver.framework.mapping.Path;
 import com.yanzhenjie.andserver.framework.view.BodyView;
 import com.yanzhenjie.andserver.framework.view.View;
+import com.yanzhenjie.andserver.http.HttpContext;
 import com.yanzhenjie.andserver.http.HttpHeaders;
 import com.yanzhenjie.andserver.http.HttpMethod;
 import com.yanzhenjie.andserver.http.HttpRequest;
@@ -45,19 +49,34 @@ import java.util.Map;
 /**
  * Created by Zhenjie Yan on 2018/9/9.
  */
-public abstract class MappingHandler implements MethodHandler {
+public abstract class MappingHandler implements MethodHandler, CacheControl {
 
     private final Object mHost;
     private final Mapping mMapping;
     private final Addition mAddition;
     private final CrossOrigin mCrossOrigin;
+    private final CachePolicy mCachePolicy;
+    private final ResponseCache mResponseCache;
 
     public MappingHandler(@NonNull Object host, @NonNull Mapping mapping, @NonNull Addition addition,
                           @Nullable CrossOrigin crossOrigin) {
+        this(host, mapping, addition, crossOrigin, null);
+    }
+
+    public MappingHandler(@NonNull Object host, @NonNull Mapping mapping, @NonNull Addition addition,
+                          @Nullable CrossOrigin crossOrigin, @Nullable CachePolicy cachePolicy) {
+        this(host, mapping, addition, crossOrigin, cachePolicy, null);
+    }
+
+    public MappingHandler(@NonNull Object host, @NonNull Mapping mapping, @NonNull Addition addition,
+                          @Nullable CrossOrigin crossOrigin, @Nullable CachePolicy cachePolicy,
+                          @Nullable ResponseCache responseCache) {
         this.mHost = host;
         this.mMapping = mapping;
         this.mAddition = addition;
         this.mCrossOrigin = crossOrigin;
+        this.mCachePolicy = cachePolicy;
+        this.mResponseCache = responseCache;
     }
 
     @Override
@@ -78,6 +97,19 @@ public abstract class MappingHandler implements MethodHandler {
         return -1;
     }
 
+    @Nullable
+    @Override
+    public CachePolicy getCacheControl(@NonNull HttpRequest request) throws Throwable {
+        if (mCachePolicy != null) {
+            return mCachePolicy;
+        }
+        Object o = getHost();
+        if (o instanceof CacheControl) {
+            return ((CacheControl) o).getCacheControl(request);
+        }
+        return null;
+    }
+
     @NonNull
     @Override
     public Addition getAddition() {
@@ -90,6 +122,16 @@ public abstract class MappingHandler implements MethodHandler {
         return mCrossOrigin;
     }
 
+    /**
+     * Get the caching of the responses of the handler.
+     *
+     * @return {@link ResponseCache}, or null if the responses are not cached.
+     */
+    @Nullable
+    public ResponseCache getResponseCache() {
+        return mResponseCache;
+    }
+
     @NonNull
     @Override
     public Mapping getMapping() {
@@ -101,6 +143,26 @@ public abstract class MappingHandler implements MethodHandler {
         return mHost;
     }
 
+    /**
+     * Get the path variables of the request, they have been resolved when the request was routed.
+     *
+     * @param request current request.
+     *
+     * @return the path variables, the key is the name of the variable.
+     */
+    @NonNull
+    protected Map<String, String> getPathVariable(@NonNull HttpRequest request) {
+        String httpPath = request.getPath();
+        Object match = request.getAttribute(HttpContext.ROUTE_MATCH);
+        if (match instanceof RouteMatch) {
+            RouteMatch routeMatch = (RouteMatch) match;
+            if (routeMatch.getMapping() == mMapping && routeMatch.getPath().equals(httpPath)) {
+                return routeMatch.getPathVariables();
+            }
+        }
+        return getPathVariable(httpPath);
+    }
+
     /**
      * Get the path to match the request.
      *
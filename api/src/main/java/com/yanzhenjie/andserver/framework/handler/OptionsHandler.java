@@ -53,6 +53,7 @@ public class OptionsHandler implements MethodHandler {
 
     private Mapping mMapping;
     private MethodHandler mHandler;
+    private Mapping mRequestMapping;
 
     public OptionsHandler(HttpRequest optionsRequest, List<Mapping> mappings, Map<Mapping, RequestHandler> mappingMap) {
         this.mMappings = mappings;
@@ -62,9 +63,9 @@ public class OptionsHandler implements MethodHandler {
         String requestMethod = optionsRequest.getHeader(HttpHeaders.Access_Control_Request_Method);
         if (!TextUtils.isEmpty(requestMethod)) {
             HttpMethod method = HttpMethod.reverse(requestMethod);
-            Mapping exactMapping = MappingAdapter.findMappingByMethod(mMappings, method);
-            if (exactMapping != null) {
-                mMapping = exactMapping;
+            mRequestMapping = MappingAdapter.findMappingByMethod(mMappings, method);
+            if (mRequestMapping != null) {
+                mMapping = mRequestMapping;
             }
         }
 
@@ -102,7 +103,8 @@ public class OptionsHandler implements MethodHandler {
         }
 
         HttpMethod requestMethod = HttpMethod.reverse(requestMethodText);
-        Mapping mapping = MappingAdapter.findMappingByMethod(mMappings, requestMethod);
+        // The mappings come from the route match of this request, the mapping was resolved in the constructor.
+        Mapping mapping = mRequestMapping;
         if (mapping == null) {
             return invalidCORS(response);
         }
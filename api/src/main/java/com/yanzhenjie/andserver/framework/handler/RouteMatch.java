@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.handler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.framework.mapping.Mapping;
+import com.yanzhenjie.andserver.http.HttpContext;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p> The result of routing a request, it is computed once by the dispatcher and saved as the request attribute
+ * {@link HttpContext#ROUTE_MATCH}. </p>
+ */
+public final class RouteMatch {
+
+    private final String mPath;
+    private final HandlerAdapter mAdapter;
+    private final List<Mapping> mMappings;
+    private final Mapping mMapping;
+    private final RequestHandler mHandler;
+    private final MediaType mProduce;
+    private final Map<String, String> mPathVariables;
+
+    /**
+     * Create a match for an adapter which does not use {@link Mapping}, e.g. a website.
+     *
+     * @param path the path of the request.
+     * @param adapter the adapter which intercepts the request.
+     * @param handler the handler of the adapter.
+     */
+    public RouteMatch(@NonNull String path, @NonNull HandlerAdapter adapter, @Nullable RequestHandler handler) {
+        this(path, adapter, Collections.<Mapping>emptyList(), null, handler, null,
+            Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Create a match.
+     *
+     * @param path the path of the request.
+     * @param adapter the adapter which intercepts the request.
+     * @param mappings all mappings of the adapter that match the path.
+     * @param mapping the mapping that matches the method, may be null for the {@code OPTIONS} request.
+     * @param handler the handler of the mapping.
+     * @param produce the media type of the response.
+     * @param pathVariables the path variables of the mapping.
+     */
+    public RouteMatch(@NonNull String path, @NonNull HandlerAdapter adapter, @NonNull List<Mapping> mappings,
+                      @Nullable Mapping mapping, @Nullable RequestHandler handler, @Nullable MediaType produce,
+                      @NonNull Map<String, String> pathVariables) {
+        this.mPath = path;
+        this.mAdapter = adapter;
+        this.mMappings = mappings;
+        this.mMapping = mapping;
+        this.mHandler = handler;
+        this.mProduce = produce;
+        this.mPathVariables = Collections.unmodifiableMap(pathVariables);
+    }
+
+    /**
+     * Get the path which was matched.
+     */
+    @NonNull
+    public String getPath() {
+        return mPath;
+    }
+
+    /**
+     * Get the adapter which intercepts the request.
+     */
+    @NonNull
+    public HandlerAdapter getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * Get all mappings of the adapter that match the path.
+     */
+    @NonNull
+    public List<Mapping> getMappings() {
+        return mMappings;
+    }
+
+    /**
+     * Get the mapping that matches the method of the request.
+     */
+    @Nullable
+    public Mapping getMapping() {
+        return mMapping;
+    }
+
+    /**
+     * Get the handler to handle the request.
+     */
+    @Nullable
+    public RequestHandler getHandler() {
+        return mHandler;
+    }
+
+    /**
+     * Get the media type the response produces.
+     */
+    @Nullable
+    public MediaType getProduce() {
+        return mProduce;
+    }
+
+    /**
+     * Get the path variables, the key is the name of the variable.
+     */
+    @NonNull
+    public Map<String, String> getPathVariables() {
+        return mPathVariables;
+    }
+
+    /**
+     * Whether this match was made by the given adapter for the given path.
+     *
+     * @param adapter the adapter.
+     * @param path the current path of the request.
+     *
+     * @return true, otherwise is false.
+     */
+    public boolean isMatched(@NonNull HandlerAdapter adapter, @NonNull String path) {
+        return mAdapter == adapter && mPath.equals(path);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.handler;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.framework.mapping.Mapping;
+import com.yanzhenjie.andserver.framework.mapping.Path;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p> An immutable segment trie of the registered mappings. </p>
+ *
+ * The trie is built once when the adapters are registered, a request path is resolved to the {@link HandlerAdapter},
+ * the candidate {@link Mapping}s and the path variables in one walk. The adapter which was added first wins when
+ * several adapters match the path, within an adapter the exact paths win over the blurred paths, and the matched
+ * mappings are in the order of registration.
+ */
+public final class RouteTrie {
+
+    public static final RouteTrie EMPTY = new Builder().build();
+
+    private final Node mRoot;
+
+    private RouteTrie(Node root) {
+        this.mRoot = root;
+    }
+
+    /**
+     * Resolve the given path.
+     *
+     * @param httpPath the path of the request.
+     *
+     * @return the {@link Result}, or {@code null} if no mapping matches the path.
+     */
+    @Nullable
+    public Result match(@NonNull String httpPath) {
+        return match(Path.pathToList(httpPath));
+    }
+
+    /**
+     * Resolve the given segments.
+     *
+     * @param httpSegments the segments of the request path.
+     *
+     * @return the {@link Result}, or {@code null} if no mapping matches the segments.
+     */
+    @Nullable
+    public Result match(@NonNull List<Path.Segment> httpSegments) {
+        List<Entry> entries = new ArrayList<>();
+        collect(mRoot, httpSegments, 0, entries);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        return new Result(httpSegments, entries);
+    }
+
+    private static void collect(Node node, List<Path.Segment> httpSegments, int index, List<Entry> entries) {
+        if (index == httpSegments.size()) {
+            entries.addAll(node.mEntries);
+            return;
+        }
+
+        Node literal = node.mLiterals.get(httpSegments.get(index).getValue());
+        if (literal != null) {
+            collect(literal, httpSegments, index + 1, entries);
+        }
+        if (node.mVariable != null) {
+            collect(node.mVariable, httpSegments, index + 1, entries);
+        }
+    }
+
+    /**
+     * The result of matching a path.
+     */
+    public static final class Result {
+
+        private final List<Path.Segment> mHttpSegments;
+        private final HandlerAdapter mAdapter;
+        private final List<Entry> mEntries;
+        private final List<Mapping> mMappings;
+
+        private Result(List<Path.Segment> httpSegments, List<Entry> candidates) {
+            this.mHttpSegments = httpSegments;
+
+            // The walk visits the literal segments first, the candidates are put in the order of registration.
+            Collections.sort(candidates, new Comparator<Entry>() {
+                @Override
+                public int compare(Entry o1, Entry o2) {
+                    return o1.mIndex < o2.mIndex ? -1 : (o1.mIndex == o2.mIndex ? 0 : 1);
+                }
+            });
+            Entry first = candidates.get(0);
+            for (Entry entry: candidates) {
+                if (entry.mOrder < first.mOrder) {
+                    first = entry;
+                }
+            }
+            this.mAdapter = first.mAdapter;
+
+            // The blurred mappings are only used if the adapter has no exact mapping of the path.
+            boolean exact = false;
+            for (Entry entry: candidates) {
+                exact = exact || (entry.mAdapter == mAdapter && !entry.isBlurred);
+            }
+
+            List<Entry> entries = new ArrayList<>();
+            List<Mapping> mappings = new ArrayList<>();
+            for (Entry entry: candidates) {
+                if (entry.mAdapter == mAdapter && !(exact && entry.isBlurred) && !mappings.contains(entry.mMapping)) {
+                    entries.add(entry);
+                    mappings.add(entry.mMapping);
+                }
+            }
+            this.mEntries = entries;
+            this.mMappings = Collections.unmodifiableList(mappings);
+        }
+
+        /**
+         * Get the adapter which owns the matched mappings.
+         *
+         * @return {@link HandlerAdapter}.
+         */
+        @NonNull
+        public HandlerAdapter getAdapter() {
+            return mAdapter;
+        }
+
+        /**
+         * Get the mappings of the adapter that match the path, in the order of registration.
+         *
+         * @return the mappings, non-empty.
+         */
+        @NonNull
+        public List<Mapping> getMappings() {
+            return mMappings;
+        }
+
+        /**
+         * Get the path variables of the given mapping.
+         *
+         * @param mapping one of {@link #getMappings()}.
+         *
+         * @return the path variables, the key is the name of the variable.
+         */
+        @NonNull
+        public Map<String, String> getPathVariables(@NonNull Mapping mapping) {
+            for (Entry entry: mEntries) {
+                if (entry.mMapping == mapping) {
+                    return entry.getPathVariables(mHttpSegments);
+                }
+            }
+            return Collections.emptyMap();
+        }
+    }
+
+    public static final class Builder {
+
+        private final Node mRoot = new Node();
+        private final Map<HandlerAdapter, Integer> mOrders = new HashMap<>();
+        private int mIndex;
+
+        public Builder() {
+        }
+
+        /**
+         * Add all the mappings of the adapter.
+         *
+         * @param adapter {@link MappingAdapter}.
+         */
+        public Builder addAdapter(@NonNull MappingAdapter adapter) {
+            for (Mapping mapping: adapter.getMappingMap().keySet()) {
+                addMapping(adapter, mapping);
+            }
+            return this;
+        }
+
+        /**
+         * Add the rules of the mapping.
+         *
+         * @param adapter the adapter which owns the mapping.
+         * @param mapping {@link Mapping}.
+         */
+        public Builder addMapping(@NonNull HandlerAdapter adapter, @NonNull Mapping mapping) {
+            Integer order = mOrders.get(adapter);
+            if (order == null) {
+                order = mOrders.size();
+                mOrders.put(adapter, order);
+            }
+            int index = mIndex++;
+            for (Path.Rule rule: mapping.getPath().getRuleList()) {
+                List<Path.Segment> segments = rule.getSegments();
+                Node node = mRoot;
+                for (Path.Segment segment: segments) {
+                    node = segment.isBlurred() ? node.variable() : node.literal(segment.getValue());
+                }
+                node.mEntries.add(new Entry(adapter, order, index, mapping, segments));
+            }
+            return this;
+        }
+
+        public RouteTrie build() {
+            return new RouteTrie(mRoot.freeze());
+        }
+    }
+
+    private static final class Entry {
+
+        private final HandlerAdapter mAdapter;
+        private final int mOrder;
+        private final int mIndex;
+        private final Mapping mMapping;
+        private final List<Path.Segment> mSegments;
+        private final boolean isBlurred;
+
+        private Entry(HandlerAdapter adapter, int order, int index, Mapping mapping, List<Path.Segment> segments) {
+            this.mAdapter = adapter;
+            this.mOrder = order;
+            this.mIndex = index;
+            this.mMapping = mapping;
+            this.mSegments = segments;
+
+            boolean blurred = false;
+            for (Path.Segment segment: segments) {
+                blurred = blurred || segment.isBlurred();
+            }
+            this.isBlurred = blurred;
+        }
+
+        private Map<String, String> getPathVariables(List<Path.Segment> httpSegments) {
+            if (!isBlurred) {
+                return Collections.emptyMap();
+            }
+
+            Map<String, String> map = new HashMap<>();
+            for (int i = 0; i < mSegments.size(); i++) {
+                Path.Segment segment = mSegments.get(i);
+                if (segment.isBlurred()) {
+                    String key = segment.getValue();
+                    key = key.substring(1, key.length() - 1);
+                    map.put(key, httpSegments.get(i).getValue());
+                }
+            }
+            return map;
+        }
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> mLiterals = new HashMap<>();
+        private Node mVariable;
+        private List<Entry> mEntries = new ArrayList<>();
+
+        private Node literal(String value) {
+            Node child = mLiterals.get(value);
+            if (child == null) {
+                child = new Node();
+                mLiterals.put(value, child);
+            }
+            return child;
+        }
+
+        private Node variable() {
+            if (mVariable == null) {
+                mVariable = new Node();
+            }
+            return mVariable;
+        }
+
+        /**
+         * Copy this node and its children into an unmodifiable tree.
+         */
+        private Node freeze() {
+            Node node = new Node();
+            if (mLiterals.isEmpty()) {
+                node.mLiterals = Collections.emptyMap();
+            } else {
+                Map<String, Node> literals = new HashMap<>(mLiterals.size());
+                for (Map.Entry<String, Node> entry: mLiterals.entrySet()) {
+                    literals.put(entry.getKey(), entry.getValue().freeze());
+                }
+                node.mLiterals = Collections.unmodifiableMap(literals);
+            }
+            node.mVariable = mVariable == null ? null : mVariable.freeze();
+            node.mEntries = mEntries.isEmpty() ? Collections.<Entry>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(mEntries));
+            return node;
+        }
+    }
+}
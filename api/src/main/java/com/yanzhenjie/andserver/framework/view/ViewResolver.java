@@ -28,6 +28,8 @@ import com.yanzhenjie.andserver.http.HttpContext;
 import com.yanzhenjie.andserver.http.HttpHeaders;
 import com.yanzhenjie.andserver.http.HttpRequest;
 import com.yanzhenjie.andserver.http.HttpResponse;
+import com.yanzhenjie.andserver.http.Range;
+import com.yanzhenjie.andserver.http.RangeBody;
 import com.yanzhenjie.andserver.http.RequestDispatcher;
 import com.yanzhenjie.andserver.http.ResponseBody;
 import com.yanzhenjie.andserver.http.StatusCode;
@@ -70,7 +72,9 @@ public class ViewResolver implements Patterns, StatusCode, HttpHeaders {
     }
 
     private void resolveRest(Object output, @NonNull HttpRequest request, @NonNull HttpResponse response) {
-        if (output instanceof ResponseBody) {
+        if (output instanceof RangeBody) {
+            response.setBody(new Range(request, response).process((RangeBody) output));
+        } else if (output instanceof ResponseBody) {
             response.setBody((ResponseBody) output);
         } else if (mConverter != null) {
             response.setBody(mConverter.convert(output, obtainProduce(request)));
@@ -25,6 +25,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.yanzhenjie.andserver.error.NotFoundException;
+import com.yanzhenjie.andserver.framework.body.ByteArrayBody;
 import com.yanzhenjie.andserver.framework.body.StreamBody;
 import com.yanzhenjie.andserver.framework.body.StringBody;
 import com.yanzhenjie.andserver.http.HttpRequest;
@@ -41,16 +42,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Zhenjie Yan on 2018/9/7.
  */
 public class AssetsWebsite extends BasicWebsite implements Patterns {
 
+    private static final String ASSET_URI = "file:///android_asset/";
+
     private final AssetsReader mAssetsReader;
     private final String mRootPath;
     private final PackageInfo mPackageInfo;
+    private final Map<String, Asset> mAssetMap = new ConcurrentHashMap<>();
+    private volatile Set<String> mAssetIndex;
 
     /**
      * Create a website object.
@@ -89,24 +98,41 @@ public class AssetsWebsite extends BasicWebsite implements Patterns {
         }
     }
 
+    /**
+     * Scan the files under the root directory once, then the requests are matched without reading the assets. The
+     * default is false.
+     */
+    public void setIndexed(boolean indexed) {
+        if (!indexed) {
+            mAssetIndex = null;
+            return;
+        }
+
+        List<String> pathList = new ArrayList<>();
+        if (TextUtils.isEmpty(mRootPath)) {
+            for (String file: mAssetsReader.list(mRootPath)) {
+                pathList.addAll(mAssetsReader.scanFile(file));
+            }
+        } else {
+            pathList.addAll(mAssetsReader.scanFile(mRootPath));
+        }
+        mAssetIndex = Collections.unmodifiableSet(new HashSet<>(pathList));
+    }
+
     @Override
     public boolean intercept(@NonNull HttpRequest request) {
         String httpPath = request.getPath();
-        InputStream stream = findPathSteam(httpPath);
-        IOUtils.closeQuietly(stream);
-        return stream != null;
+        return findPathAsset(httpPath) != null;
     }
 
     @Override
     public String getETag(@NonNull HttpRequest request) throws Throwable {
         String httpPath = request.getPath();
-        InputStream stream = findPathSteam(httpPath);
-        if (stream != null) {
-            try {
-                return DigestUtils.md5DigestAsHex(stream);
-            } finally {
-                IOUtils.closeQuietly(stream);
-            }
+        String assetPath = findPathAsset(httpPath);
+        Asset asset = assetPath == null ? null : getAsset(assetPath);
+        if (asset != null) {
+            String encoding = findEncoding(request, assetPath);
+            return encoding == null ? asset.mETag : asset.mETag + "-" + encoding;
         }
         return null;
     }
@@ -114,9 +140,14 @@ public class AssetsWebsite extends BasicWebsite implements Patterns {
     @Override
     public long getLastModified(@NonNull HttpRequest request) throws Throwable {
         String httpPath = request.getPath();
-        InputStream stream = findPathSteam(httpPath);
-        IOUtils.closeQuietly(stream);
-        return stream != null ? mPackageInfo.lastUpdateTime : -1;
+        return findPathAsset(httpPath) != null ? mPackageInfo.lastUpdateTime : -1;
+    }
+
+    @Nullable
+    @Override
+    protected MediaType getMediaType(@NonNull HttpRequest request) {
+        String assetPath = findPathAsset(request.getPath());
+        return assetPath == null ? null : MediaType.getFileMediaType(assetPath);
     }
 
     @NonNull
@@ -124,46 +155,162 @@ public class AssetsWebsite extends BasicWebsite implements Patterns {
     public ResponseBody getBody(@NonNull HttpRequest request, @NonNull HttpResponse response) throws IOException {
         String httpPath = request.getPath();
         String objectPath = mRootPath + httpPath;
-        InputStream stream = mAssetsReader.getInputStream(objectPath);
-        if (stream != null) {
-            MediaType mediaType = MediaType.getFileMediaType(objectPath);
-            return new StreamBody(stream, stream.available(), mediaType);
+        if (getAsset(objectPath) != null) {
+            return createBody(request, response, objectPath);
         }
 
         String indexPath = addEndSlash(objectPath) + getIndexFileName();
-        InputStream indexStream = mAssetsReader.getInputStream(indexPath);
-        if (indexStream != null) {
+        if (getAsset(indexPath) != null) {
             if (!httpPath.endsWith(File.separator)) {
-                IOUtils.closeQuietly(indexStream);
                 String redirectPath = addEndSlash(httpPath);
                 String query = queryString(request);
                 response.sendRedirect(redirectPath + "?" + query);
                 return new StringBody("");
             }
 
-            final MediaType mediaType = MediaType.getFileMediaType(indexPath);
-            return new StreamBody(indexStream, indexStream.available(), mediaType);
+            return createBody(request, response, indexPath);
         }
 
         throw new NotFoundException(httpPath);
     }
 
-    private InputStream findPathSteam(String httpPath) {
+    /**
+     * Create the body of the asset, the cached content is used without opening the asset.
+     */
+    private ResponseBody createBody(HttpRequest request, HttpResponse response, String assetPath)
+        throws IOException {
+        Asset asset = getAsset(assetPath);
+        String encoding = findEncoding(request, assetPath);
+        String targetPath = encoding == null ? assetPath : getEncodedPath(assetPath, encoding);
+        Asset target = encoding == null ? asset : getAsset(targetPath);
+        if (asset == null || target == null) {
+            throw new NotFoundException(request.getPath());
+        }
+        setEncodingHeaders(response, encoding);
+
+        MediaType mediaType = asset.mMediaType;
+        long length = target.mLength;
+        ContentCache cache = getContentCache();
+        if (cache != null && cache.isCacheable(length)) {
+            String key = ASSET_URI + targetPath;
+            long version = mPackageInfo.lastUpdateTime;
+            byte[] content = cache.get(key, version);
+            if (content == null) {
+                InputStream stream = openAsset(request, targetPath);
+                try {
+                    content = IOUtils.toByteArray(stream, (int) length);
+                } finally {
+                    IOUtils.closeQuietly(stream);
+                }
+                cache.put(key, version, content);
+            }
+            return new ByteArrayBody(content, mediaType);
+        }
+        return new StreamBody(openAsset(request, targetPath), length, mediaType);
+    }
+
+    /**
+     * Get the metadata of the asset, it is computed once and kept until the application is updated. The missing
+     * assets are also kept, they are the directories and the precompressed siblings which are looked up.
+     *
+     * @return the metadata, or null if the asset is not found.
+     */
+    @Nullable
+    private Asset getAsset(@NonNull String assetPath) throws IOException {
+        long version = mPackageInfo.lastUpdateTime;
+        Asset asset = mAssetMap.get(assetPath);
+        if (asset != null && asset.mVersion == version) {
+            return asset.mETag == null ? null : asset;
+        }
+
+        Set<String> assetIndex = mAssetIndex;
+        if (assetIndex != null && !assetIndex.contains(assetPath)) {
+            return null;
+        }
+        InputStream stream = mAssetsReader.getInputStream(assetPath);
+        if (stream == null) {
+            mAssetMap.put(assetPath, new Asset(version, null, -1, null));
+            return null;
+        }
+        try {
+            long length = stream.available();
+            String eTag = DigestUtils.md5DigestAsHex(stream);
+            asset = new Asset(version, eTag, length, MediaType.getFileMediaType(assetPath));
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+        mAssetMap.put(assetPath, asset);
+        return asset;
+    }
+
+    /**
+     * Find the precompressed sibling which is accepted by the client.
+     *
+     * @return the encoding of the sibling, or null if it is not found.
+     */
+    @Nullable
+    private String findEncoding(@NonNull HttpRequest request, @NonNull String assetPath) throws IOException {
+        for (String encoding: getAcceptedEncodings(request)) {
+            if (getAsset(getEncodedPath(assetPath, encoding)) != null) {
+                return encoding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the path of the specified asset.
+     *
+     * @param httpPath path.
+     *
+     * @return the path in the assets, or null if it is not found.
+     */
+    private String findPathAsset(String httpPath) {
         String targetPath = mRootPath + httpPath;
-        InputStream targetStream = mAssetsReader.getInputStream(targetPath);
-        if (targetStream != null) {
-            return targetStream;
+        if (isFile(targetPath)) {
+            return targetPath;
         }
 
         String indexPath = addEndSlash(targetPath) + getIndexFileName();
-        InputStream indexStream = mAssetsReader.getInputStream(indexPath);
-        if (indexStream != null) {
-            return indexStream;
+        if (isFile(indexPath)) {
+            return indexPath;
         }
 
         return null;
     }
 
+    private boolean isFile(String assetPath) {
+        Set<String> assetIndex = mAssetIndex;
+        if (assetIndex != null) {
+            return assetIndex.contains(assetPath);
+        }
+        return mAssetsReader.isFile(assetPath);
+    }
+
+    @NonNull
+    private InputStream openAsset(HttpRequest request, String assetPath) {
+        InputStream stream = mAssetsReader.getInputStream(assetPath);
+        if (stream == null) {
+            throw new NotFoundException(request.getPath());
+        }
+        return stream;
+    }
+
+    private static class Asset {
+
+        private final long mVersion;
+        private final String mETag;
+        private final long mLength;
+        private final MediaType mMediaType;
+
+        private Asset(long version, String eTag, long length, MediaType mediaType) {
+            this.mVersion = version;
+            this.mETag = eTag;
+            this.mLength = length;
+            this.mMediaType = mediaType;
+        }
+    }
+
     public static class AssetsReader {
 
         /**
@@ -18,12 +18,17 @@ package com.yanzhenjie.andserver.framework.website;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.yanzhenjie.andserver.http.HttpHeaders;
 import com.yanzhenjie.andserver.http.HttpRequest;
+import com.yanzhenjie.andserver.http.HttpResponse;
+import com.yanzhenjie.andserver.util.AcceptEncoding;
 import com.yanzhenjie.andserver.util.Assert;
 import com.yanzhenjie.andserver.util.MultiValueMap;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -34,7 +39,15 @@ public abstract class BasicWebsite extends Website {
 
     public static final String DEFAULT_INDEX = "index.html";
 
+    /**
+     * The encodings of the precompressed files and the suffixes of their names, in order of preference.
+     */
+    private static final String[] ENCODINGS = {"br", "gzip"};
+    private static final String[] SUFFIXES = {".br", ".gz"};
+
     private final String mIndexFileName;
+    private boolean isPrecompressed;
+    private ContentCache mContentCache;
 
     public BasicWebsite() {
         this(DEFAULT_INDEX);
@@ -50,6 +63,37 @@ public abstract class BasicWebsite extends Website {
         this.mIndexFileName = indexFileName;
     }
 
+    /**
+     * Serve the precompressed sibling of a file if the client accepts its encoding, e.g. {@code app.js.br} or {@code
+     * app.js.gz} for {@code app.js}. The default is false.
+     */
+    public void setPrecompressed(boolean precompressed) {
+        this.isPrecompressed = precompressed;
+    }
+
+    /**
+     * Whether to serve the precompressed files.
+     */
+    public boolean isPrecompressed() {
+        return isPrecompressed;
+    }
+
+    /**
+     * Keep the content of the small files in the memory, the cache can be shared by several websites. The default is
+     * null, the files are read for every request.
+     */
+    public void setContentCache(@Nullable ContentCache cache) {
+        this.mContentCache = cache;
+    }
+
+    /**
+     * Get the cache of the content of the files.
+     */
+    @Nullable
+    public ContentCache getContentCache() {
+        return mContentCache;
+    }
+
     @Override
     public String getETag(@NonNull HttpRequest request) throws Throwable {
         return null;
@@ -70,6 +114,66 @@ public abstract class BasicWebsite extends Website {
         return mIndexFileName;
     }
 
+    /**
+     * Get the encodings of the precompressed files which the client accepts, in order of preference.
+     *
+     * @return the encodings, it is empty if the precompressed files are not served.
+     */
+    @NonNull
+    protected List<String> getAcceptedEncodings(@NonNull HttpRequest request) {
+        List<String> encodings = new ArrayList<>();
+        if (!isPrecompressed) {
+            return encodings;
+        }
+
+        float[] qualities = AcceptEncoding.getQualities(request.getHeaders(HttpHeaders.ACCEPT_ENCODING), ENCODINGS);
+        for (int i = 0; i < ENCODINGS.length; i++) {
+            if (qualities[i] <= 0) {
+                continue;
+            }
+            // Keep the order of preference unless the client prefers another one.
+            int index = encodings.size();
+            while (index > 0 && qualities[indexOf(encodings.get(index - 1))] < qualities[i]) {
+                index--;
+            }
+            encodings.add(index, ENCODINGS[i]);
+        }
+        return encodings;
+    }
+
+    /**
+     * Get the path of the precompressed sibling of the file.
+     *
+     * @param path the path of the original file.
+     * @param encoding one of {@link #getAcceptedEncodings(HttpRequest)}.
+     */
+    @NonNull
+    protected String getEncodedPath(@NonNull String path, @NonNull String encoding) {
+        return path + SUFFIXES[indexOf(encoding)];
+    }
+
+    /**
+     * Set the headers of the precompressed file, the content type of the original file should be kept.
+     */
+    protected void setEncodingHeaders(@NonNull HttpResponse response, @Nullable String encoding) {
+        if (!isPrecompressed) {
+            return;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+    }
+
+    private static int indexOf(String encoding) {
+        for (int i = 0; i < ENCODINGS.length; i++) {
+            if (ENCODINGS[i].equals(encoding)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unsupported encoding: %s.", encoding));
+    }
+
     /**
      * Add the '/' to the beginning.
      *
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.website;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.util.Assert;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p> A memory cache of the small static files, the least recently used files are evicted when the size of the cache
+ * exceeds the limit. </p>
+ *
+ * The cache can be shared by several websites, each file is identified by its path and its version, e.g. the last
+ * modified time, a file whose version is changed is read again.
+ */
+public class ContentCache {
+
+    private final long mMaxSize;
+    private final int mMaxFileSize;
+    private final LinkedHashMap<String, Entry> mEntryMap = new LinkedHashMap<>(16, 0.75F, true);
+
+    private long mSize;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize the max total size of the cached files in bytes.
+     * @param maxFileSize the max size of a cached file in bytes, the larger files are not cached.
+     */
+    public ContentCache(long maxSize, int maxFileSize) {
+        Assert.isTrue(maxSize > 0, "The maxSize must be greater than 0.");
+        Assert.isTrue(maxFileSize > 0 && maxFileSize <= maxSize,
+            "The maxFileSize must be greater than 0 and not greater than the maxSize.");
+
+        this.mMaxSize = maxSize;
+        this.mMaxFileSize = maxFileSize;
+    }
+
+    /**
+     * Whether a file of the given length can be cached.
+     */
+    public boolean isCacheable(long length) {
+        return length >= 0 && length <= mMaxFileSize;
+    }
+
+    /**
+     * Get the content of the file.
+     *
+     * @param key the path of the file.
+     * @param version the version of the file, e.g. the last modified time.
+     *
+     * @return the content, or null if it is not cached or the version is changed.
+     */
+    @Nullable
+    public synchronized byte[] get(@NonNull String key, long version) {
+        Entry entry = mEntryMap.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.mVersion != version) {
+            remove(key);
+            return null;
+        }
+        return entry.mContent;
+    }
+
+    /**
+     * Cache the content of the file, the least recently used files are evicted if necessary.
+     *
+     * @param key the path of the file.
+     * @param version the version of the file, e.g. the last modified time.
+     * @param content the content.
+     */
+    public synchronized void put(@NonNull String key, long version, @NonNull byte[] content) {
+        if (!isCacheable(content.length)) {
+            return;
+        }
+
+        Entry previous = mEntryMap.put(key, new Entry(version, content));
+        if (previous != null) {
+            mSize -= previous.mContent.length;
+        }
+        mSize += content.length;
+
+        Iterator<Map.Entry<String, Entry>> iterator = mEntryMap.entrySet().iterator();
+        while (mSize > mMaxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            mSize -= eldest.mContent.length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Remove the content of the file.
+     */
+    public synchronized void remove(@NonNull String key) {
+        Entry entry = mEntryMap.remove(key);
+        if (entry != null) {
+            mSize -= entry.mContent.length;
+        }
+    }
+
+    /**
+     * Remove all the files.
+     */
+    public synchronized void clear() {
+        mEntryMap.clear();
+        mSize = 0;
+    }
+
+    /**
+     * Get the total size of the cached files in bytes.
+     */
+    public synchronized long size() {
+        return mSize;
+    }
+
+    private static class Entry {
+
+        private final long mVersion;
+        private final byte[] mContent;
+
+        private Entry(long version, byte[] content) {
+            this.mVersion = version;
+            this.mContent = content;
+        }
+    }
+}
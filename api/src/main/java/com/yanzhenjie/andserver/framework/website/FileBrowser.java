@@ -21,23 +21,35 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.yanzhenjie.andserver.error.NotFoundException;
+import com.yanzhenjie.andserver.framework.body.ByteArrayBody;
 import com.yanzhenjie.andserver.framework.body.FileBody;
 import com.yanzhenjie.andserver.framework.body.StringBody;
+import com.yanzhenjie.andserver.framework.website.FileMetadataCache.Metadata;
 import com.yanzhenjie.andserver.http.HttpRequest;
 import com.yanzhenjie.andserver.http.HttpResponse;
 import com.yanzhenjie.andserver.http.ResponseBody;
 import com.yanzhenjie.andserver.util.Assert;
-import com.yanzhenjie.andserver.util.DigestUtils;
-import com.yanzhenjie.andserver.util.IOUtils;
 import com.yanzhenjie.andserver.util.MediaType;
 import com.yanzhenjie.andserver.util.Patterns;
+import com.yanzhenjie.andserver.util.UrlCoder;
 
 import org.apache.commons.io.Charsets;
+import org.apache.httpcore.protocol.HttpCoreContext;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Created by Zhenjie Yan on 2018/9/7.
@@ -54,39 +66,88 @@ public class FileBrowser extends BasicWebsite implements Patterns {
         "40px;}li {display: list-item;text-align: -webkit-match-parent;margin-bottom: 5px;}</style></head><body><h1 " +
         "class=\"center_horizontal\">%2$s</h1><ul>";
     private static final String FOLDER_ITEM = "<li><a href=\"%1$s\">%2$s</a></li>";
+    private static final String FOLDER_PAGE_PREFIX = "<li class=\"center_horizontal\">";
+    private static final String FOLDER_PAGE_LINK = "<a href=\"?%1$s\">%2$s</a>";
+    private static final String FOLDER_PAGE_SUFFIX = "</li>";
     private static final String FOLDER_HTML_SUFFIX = "</ul></body></html>";
 
+    /**
+     * The queries of the listing, e.g. {@code /music/?sort=modified&order=desc&page=2}.
+     */
+    public static final String QUERY_SORT = "sort";
+    public static final String QUERY_ORDER = "order";
+    public static final String QUERY_PAGE = "page";
+
+    public static final String SORT_NAME = "name";
+    public static final String SORT_SIZE = "size";
+    public static final String SORT_MODIFIED = "modified";
+    public static final String ORDER_DESC = "desc";
+
+    private static final MediaType HTML_TYPE = new MediaType(MediaType.TEXT_HTML, Charsets.toCharset("utf-8"));
+    private static final int BUFFER_SIZE = 8 * 1024;
+
     private final String mRootPath;
+    private final String mAttributeKey;
+    private FileMetadataCache mMetadataCache;
+    private int mPageSize;
 
     public FileBrowser(String rootPath) {
         Assert.isTrue(!TextUtils.isEmpty(rootPath), "The rootPath cannot be empty.");
         Assert.isTrue(rootPath.matches(PATH), "The format of [%s] is wrong, it should be like [/root/project].");
         this.mRootPath = rootPath;
+        this.mAttributeKey = FileBrowser.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
+    /**
+     * Keep the attributes of the files for a while, e.g. on the slow storage. The default is null, the files are
+     * queried once for every request.
+     */
+    public void setMetadataCache(@Nullable FileMetadataCache cache) {
+        this.mMetadataCache = cache;
+    }
+
+    /**
+     * Get the cache of the attributes of the files.
+     */
+    @Nullable
+    public FileMetadataCache getMetadataCache() {
+        return mMetadataCache;
+    }
+
+    /**
+     * Set the max count of the entries in a page of the listing, the page is specified by the {@link #QUERY_PAGE}.
+     * The default is 0, all the entries are listed in one page.
+     */
+    public void setPageSize(int pageSize) {
+        Assert.isTrue(pageSize >= 0, "The pageSize must not be less than 0.");
+        this.mPageSize = pageSize;
+    }
+
+    /**
+     * Get the max count of the entries in a page of the listing.
+     */
+    public int getPageSize() {
+        return mPageSize;
     }
 
     @Override
     public boolean intercept(@NonNull HttpRequest request) {
-        String httpPath = request.getPath();
-        File file = findPathFile(httpPath);
-        return file != null;
+        return findPathFile(request) != null;
     }
 
     @Override
     public String getETag(@NonNull HttpRequest request) throws Throwable {
-        String httpPath = request.getPath();
-        File file = findPathFile(httpPath);
-        if (file != null) {
-            String tag = file.getAbsolutePath() + file.lastModified();
-            return DigestUtils.md5DigestAsHex(tag);
+        Metadata file = findPathFile(request);
+        if (file != null && !isSortedByAttribute(request, file)) {
+            return file.getETag();
         }
         return null;
     }
 
     @Override
     public long getLastModified(@NonNull HttpRequest request) throws Throwable {
-        String httpPath = request.getPath();
-        File file = findPathFile(httpPath);
-        if (file != null) {
+        Metadata file = findPathFile(request);
+        if (file != null && !isSortedByAttribute(request, file)) {
             return file.lastModified();
         }
         return -1;
@@ -96,70 +157,364 @@ public class FileBrowser extends BasicWebsite implements Patterns {
     @Override
     public ResponseBody getBody(@NonNull HttpRequest request, @NonNull HttpResponse response) throws IOException {
         String httpPath = request.getPath();
-        File file = new File(mRootPath, httpPath);
-        if (!file.exists()) {
+        Metadata metadata = findPathFile(request);
+        if (metadata == null) {
             throw new NotFoundException(httpPath);
         }
 
-        if (file.isDirectory()) {
+        File file = metadata.getFile();
+        if (metadata.isDirectory()) {
             if (!httpPath.endsWith(File.separator)) {
                 String redirectPath = addEndSlash(httpPath);
                 response.sendRedirect(redirectPath);
                 return new StringBody("");
             }
 
-            File tempFile = File.createTempFile("file_browser", ".html");
-            OutputStream outputStream = new FileOutputStream(tempFile);
+            return createListing(request, httpPath, metadata);
+        } else {
+            return new FileBody(file);
+        }
+    }
 
-            String folderName = file.getName();
-            String prefix = String.format(FOLDER_HTML_PREFIX, folderName, folderName);
-            outputStream.write(prefix.getBytes("utf-8"));
+    /**
+     * Create the listing of the directory, the rendered listing is kept in the {@link ContentCache} until the
+     * directory is changed. The listing sorted by the size or the modified time is not kept, the directory is not
+     * changed when a file in it is written.
+     */
+    private ResponseBody createListing(HttpRequest request, String httpPath, Metadata directory) {
+        String sort = getSort(request);
+        boolean descending = sort != null && ORDER_DESC.equals(request.getQuery(QUERY_ORDER));
+        int page = 1;
+        String pageValue = request.getQuery(QUERY_PAGE);
+        if (mPageSize > 0 && !TextUtils.isEmpty(pageValue)) {
+            try {
+                page = Math.max(1, Integer.parseInt(pageValue));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        Listing listing = new Listing(directory.getFile(), httpPath, sort, descending, page, mPageSize);
 
-            File[] children = file.listFiles();
-            if (children != null && children.length > 0) {
-                for (File child: children) {
-                    String filePath = child.getAbsolutePath();
-                    int rootIndex = filePath.indexOf(mRootPath);
-                    String subHttpPath = filePath.substring(rootIndex + mRootPath.length());
-                    subHttpPath = addStartSlash(subHttpPath);
-                    String fileItem = String.format(FOLDER_ITEM, subHttpPath, child.getName());
-                    outputStream.write(fileItem.getBytes("utf-8"));
-                }
+        ContentCache cache = isSortedByAttribute(request, directory) ? null : getContentCache();
+        String key = directory.getFile().getAbsolutePath() + "?" + listing.getQuery(page);
+        if (cache != null) {
+            byte[] content = cache.get(key, directory.lastModified());
+            if (content != null) {
+                return new ByteArrayBody(content, HTML_TYPE);
             }
+        }
+        return new ListingBody(listing, cache, key, directory.lastModified());
+    }
 
-            outputStream.write(FOLDER_HTML_SUFFIX.getBytes("utf-8"));
-            IOUtils.closeQuietly(outputStream);
+    /**
+     * Get the sort of the listing.
+     *
+     * @return the sort, or null if the entries are not sorted.
+     */
+    @Nullable
+    private static String getSort(HttpRequest request) {
+        String sort = request.getQuery(QUERY_SORT);
+        if (!SORT_NAME.equals(sort) && !SORT_SIZE.equals(sort) && !SORT_MODIFIED.equals(sort)) {
+            return null;
+        }
+        return sort;
+    }
+
+    /**
+     * Whether the listing is sorted by the attributes of the files, then it is changed without the directory being
+     * changed, so it has no validator.
+     */
+    private static boolean isSortedByAttribute(HttpRequest request, Metadata file) {
+        String sort = getSort(request);
+        return file.isDirectory() && (SORT_SIZE.equals(sort) || SORT_MODIFIED.equals(sort));
+    }
+
+    /**
+     * Find the path specified resource, it is resolved once for each request.
+     *
+     * @return return if the file is found.
+     */
+    @Nullable
+    private Metadata findPathFile(@NonNull HttpRequest request) {
+        // The attributes belong to the connection, the resolution is only valid for the current message.
+        Object message = request.getAttribute(HttpCoreContext.HTTP_REQUEST);
+        File file = new File(mRootPath, request.getPath());
+        Object attribute = request.getAttribute(mAttributeKey);
+        Resolution resolution = null;
+        if (attribute instanceof Resolution) {
+            resolution = (Resolution) attribute;
+            if (message == null || resolution.mMessage != message || !resolution.mFile.getFile().equals(file)) {
+                resolution = null;
+            }
+        }
+        if (resolution == null) {
+            resolution = new Resolution(message, FileMetadataCache.get(mMetadataCache, file));
+            request.setAttribute(mAttributeKey, resolution);
+        }
+        return resolution.mFile.exists() ? resolution.mFile : null;
+    }
+
+    private static class Resolution {
+
+        private final Object mMessage;
+        private final Metadata mFile;
 
-            return new FileBody(tempFile) {
-                @Nullable
-                @Override
-                public MediaType contentType() {
-                    MediaType mimeType = super.contentType();
-                    if (mimeType != null) {
-                        mimeType = new MediaType(mimeType.getType(),
-                            mimeType.getSubtype(),
-                            Charsets.toCharset("utf-8"));
+        private Resolution(Object message, Metadata file) {
+            this.mMessage = message;
+            this.mFile = file;
+        }
+    }
+
+    private static class Listing {
+
+        private final File mDirectory;
+        private final String mHttpPath;
+        private final String mSort;
+        private final boolean isDescending;
+        private final int mPage;
+        private final int mPageSize;
+
+        private Listing(File directory, String httpPath, String sort, boolean descending, int page, int pageSize) {
+            this.mDirectory = directory;
+            this.mHttpPath = httpPath;
+            this.mSort = sort;
+            this.isDescending = descending;
+            this.mPage = page;
+            this.mPageSize = pageSize;
+        }
+
+        /**
+         * Get the names of the entries in the page, only the names are read unless they are sorted by the attributes.
+         */
+        private List<String> list() {
+            String[] names = mDirectory.list();
+            if (names == null) {
+                return Collections.emptyList();
+            }
+
+            List<String> entries;
+            if (SORT_SIZE.equals(mSort) || SORT_MODIFIED.equals(mSort)) {
+                final Map<String, Long> keys = new HashMap<>(names.length);
+                boolean isSize = SORT_SIZE.equals(mSort);
+                for (String name: names) {
+                    File child = new File(mDirectory, name);
+                    keys.put(name, isSize ? child.length() : child.lastModified());
+                }
+                entries = Arrays.asList(names);
+                Collections.sort(entries, new Comparator<String>() {
+                    @Override
+                    public int compare(String o1, String o2) {
+                        long key1 = keys.get(o1);
+                        long key2 = keys.get(o2);
+                        return key1 < key2 ? -1 : (key1 == key2 ? o1.compareToIgnoreCase(o2) : 1);
                     }
-                    return mimeType;
+                });
+            } else {
+                entries = Arrays.asList(names);
+                if (SORT_NAME.equals(mSort)) {
+                    Collections.sort(entries, String.CASE_INSENSITIVE_ORDER);
                 }
-            };
-        } else {
-            return new FileBody(file);
+            }
+            if (isDescending) {
+                Collections.reverse(entries);
+            }
+
+            if (mPageSize > 0) {
+                int from = (int) Math.min((long) (mPage - 1) * mPageSize, entries.size());
+                int to = (int) Math.min((long) from + mPageSize, entries.size());
+                entries = entries.subList(from, to);
+            }
+            return entries;
+        }
+
+        private boolean hasNext(int count) {
+            return mPageSize > 0 && count == mPageSize;
+        }
+
+        private String getQuery(int page) {
+            StringBuilder builder = new StringBuilder();
+            if (mSort != null) {
+                builder.append(QUERY_SORT).append('=').append(mSort);
+                if (isDescending) {
+                    builder.append('&').append(QUERY_ORDER).append('=').append(ORDER_DESC);
+                }
+            }
+            if (mPageSize > 0) {
+                if (builder.length() > 0) {
+                    builder.append('&');
+                }
+                builder.append(QUERY_PAGE).append('=').append(page);
+            }
+            return builder.toString();
         }
     }
 
     /**
-     * Find the path specified resource.
-     *
-     * @param httpPath path.
-     *
-     * @return return if the file is found.
+     * Write the listing as it is read, the small listing is also put into the cache.
      */
-    private File findPathFile(@NonNull String httpPath) {
-        File targetFile = new File(mRootPath, httpPath);
-        if (targetFile.exists()) {
-            return targetFile;
+    private static class ListingBody implements ResponseBody {
+
+        private final Listing mListing;
+        private final ContentCache mCache;
+        private final String mKey;
+        private final long mVersion;
+
+        private ListingBody(Listing listing, ContentCache cache, String key, long version) {
+            this.mListing = listing;
+            this.mCache = cache;
+            this.mKey = key;
+            this.mVersion = version;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return HTML_TYPE;
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream output) throws IOException {
+            CaptureOutputStream capture = new CaptureOutputStream(output, mCache);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(capture, Charsets.toCharset("utf-8")),
+                BUFFER_SIZE);
+
+            String folderName = escapeHtml(mListing.mDirectory.getName());
+            writer.write(String.format(FOLDER_HTML_PREFIX, folderName, folderName));
+            // The client can render the page before the directory is read.
+            writer.flush();
+
+            List<String> entries = mListing.list();
+            String parentPath = encodePath(mListing.mHttpPath);
+            for (String name: entries) {
+                writer.write(String.format(FOLDER_ITEM, escapeHtml(parentPath + encodePath(name)), escapeHtml(name)));
+            }
+
+            int page = mListing.mPage;
+            boolean hasNext = mListing.hasNext(entries.size());
+            if (page > 1 || hasNext) {
+                writer.write(FOLDER_PAGE_PREFIX);
+                if (page > 1) {
+                    writer.write(String.format(FOLDER_PAGE_LINK, mListing.getQuery(page - 1), "&lt;"));
+                }
+                writer.write(" " + page + " ");
+                if (hasNext) {
+                    writer.write(String.format(FOLDER_PAGE_LINK, mListing.getQuery(page + 1), "&gt;"));
+                }
+                writer.write(FOLDER_PAGE_SUFFIX);
+            }
+            writer.write(FOLDER_HTML_SUFFIX);
+            writer.flush();
+
+            byte[] content = capture.toByteArray();
+            if (content != null) {
+                mCache.put(mKey, mVersion, content);
+            }
+        }
+    }
+
+    /**
+     * Encode the segments of the path for the link, the separators are kept.
+     */
+    private static String encodePath(String path) {
+        StringBuilder builder = new StringBuilder(path.length());
+        int start = 0;
+        while (true) {
+            int end = path.indexOf('/', start);
+            String segment = end == -1 ? path.substring(start) : path.substring(start, end);
+            builder.append(UrlCoder.urlEncode(segment, "utf-8").replace("+", "%20"));
+            if (end == -1) {
+                return builder.toString();
+            }
+            builder.append('/');
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Escape the text for the HTML, the names of the files may contain the markups.
+     */
+    private static String escapeHtml(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<': {
+                    builder.append("&lt;");
+                    break;
+                }
+                case '>': {
+                    builder.append("&gt;");
+                    break;
+                }
+                case '&': {
+                    builder.append("&amp;");
+                    break;
+                }
+                case '"': {
+                    builder.append("&quot;");
+                    break;
+                }
+                case '\'': {
+                    builder.append("&#39;");
+                    break;
+                }
+                default: {
+                    builder.append(c);
+                    break;
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Keep a copy of the written content as long as it can be cached.
+     */
+    private static class CaptureOutputStream extends FilterOutputStream {
+
+        private final ContentCache mCache;
+        private ByteArrayOutputStream mCopy;
+
+        private CaptureOutputStream(OutputStream out, ContentCache cache) {
+            super(out);
+            this.mCache = cache;
+            this.mCopy = cache == null ? null : new ByteArrayOutputStream();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (mCopy != null) {
+                if (mCache.isCacheable(mCopy.size() + len)) {
+                    mCopy.write(b, off, len);
+                } else {
+                    mCopy = null;
+                }
+            }
+        }
+
+        @Nullable
+        private byte[] toByteArray() {
+            return mCopy == null ? null : mCopy.toByteArray();
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.website;
+
+import androidx.annotation.NonNull;
+
+import com.yanzhenjie.andserver.util.Assert;
+import com.yanzhenjie.andserver.util.DigestUtils;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p> A short-lived cache of the attributes of the files, the storage is not queried again until the attributes
+ * expire. </p>
+ *
+ * The cache can be shared by several websites, a file which is changed is seen by them after the max age at most.
+ */
+public class FileMetadataCache {
+
+    private final int mMaxSize;
+    private final long mMaxAge;
+    private final LinkedHashMap<String, Metadata> mMetadataMap;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize the max count of the cached files.
+     * @param maxAge the max age of the attributes.
+     * @param unit the unit of the max age.
+     */
+    public FileMetadataCache(int maxSize, long maxAge, @NonNull TimeUnit unit) {
+        Assert.isTrue(maxSize > 0, "The maxSize must be greater than 0.");
+        Assert.isTrue(maxAge >= 0, "The maxAge must not be less than 0.");
+
+        this.mMaxSize = maxSize;
+        this.mMaxAge = unit.toNanos(maxAge);
+        this.mMetadataMap = new LinkedHashMap<String, Metadata>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Metadata> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * Remove the attributes of the file, e.g. after the file is changed by the server itself.
+     */
+    public synchronized void remove(@NonNull File file) {
+        mMetadataMap.remove(file.getAbsolutePath());
+    }
+
+    /**
+     * Remove all the attributes.
+     */
+    public synchronized void clear() {
+        mMetadataMap.clear();
+    }
+
+    /**
+     * Get the attributes of the file, the storage is queried if they are not cached or have expired.
+     */
+    @NonNull
+    Metadata get(@NonNull File file) {
+        String key = file.getAbsolutePath();
+        long now = System.nanoTime();
+        synchronized (this) {
+            Metadata metadata = mMetadataMap.get(key);
+            if (metadata != null && now - metadata.mTime < mMaxAge) {
+                return metadata;
+            }
+        }
+
+        Metadata metadata = new Metadata(file, now);
+        synchronized (this) {
+            mMetadataMap.put(key, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Get the attributes of the file from the cache if it is not null, otherwise from the storage.
+     */
+    @NonNull
+    static Metadata get(FileMetadataCache cache, @NonNull File file) {
+        return cache == null ? new Metadata(file, System.nanoTime()) : cache.get(file);
+    }
+
+    /**
+     * The attributes of a file at the time of the query.
+     */
+    static class Metadata {
+
+        private final File mFile;
+        private final long mTime;
+        private final boolean isFile;
+        private final boolean isDirectory;
+        private final long mLength;
+        private final long mLastModified;
+
+        private volatile String mETag;
+
+        private Metadata(File file, long time) {
+            this.mFile = file;
+            this.mTime = time;
+            this.isFile = file.isFile();
+            this.isDirectory = !isFile && file.isDirectory();
+            this.mLastModified = isFile || isDirectory ? file.lastModified() : 0;
+            this.mLength = isFile ? file.length() : 0;
+        }
+
+        @NonNull
+        File getFile() {
+            return mFile;
+        }
+
+        boolean exists() {
+            return isFile || isDirectory;
+        }
+
+        boolean isFile() {
+            return isFile;
+        }
+
+        boolean isDirectory() {
+            return isDirectory;
+        }
+
+        long length() {
+            return mLength;
+        }
+
+        long lastModified() {
+            return mLastModified;
+        }
+
+        /**
+         * Get the digest of the path and the modified time.
+         */
+        @NonNull
+        String getETag() {
+            String eTag = mETag;
+            if (eTag == null) {
+                eTag = DigestUtils.md5DigestAsHex(mFile.getAbsolutePath() + mLastModified);
+                mETag = eTag;
+            }
+            return eTag;
+        }
+    }
+}
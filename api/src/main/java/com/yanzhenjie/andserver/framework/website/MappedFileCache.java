@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.website;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.http.RangeBody;
+import com.yanzhenjie.andserver.util.Assert;
+import com.yanzhenjie.andserver.util.IOUtils;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p> The memory mappings of the large files, the concurrent readers of a file share the same pages. </p>
+ *
+ * A mapping is identified by the path, the last modified time and the length of the file. The least recently used
+ * mappings are evicted when the total size exceeds the limit. Java cannot unmap a file explicitly, so the pages of an
+ * evicted mapping are released when its buffers are collected by the garbage collector, after the responses which are
+ * reading it have been sent.
+ */
+public class MappedFileCache {
+
+    private static final long REGION_SIZE = 1L << 30;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long mMaxSize;
+    private final long mMinFileSize;
+    private final LinkedHashMap<String, Mapping> mMappingMap = new LinkedHashMap<>(16, 0.75F, true);
+
+    private long mSize;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxSize the max total size of the mapped files in bytes.
+     * @param minFileSize the min size of a mapped file in bytes, the smaller files are read as usual.
+     */
+    public MappedFileCache(long maxSize, long minFileSize) {
+        Assert.isTrue(maxSize > 0, "The maxSize must be greater than 0.");
+        Assert.isTrue(minFileSize >= 0 && minFileSize <= maxSize,
+            "The minFileSize must not be less than 0 and not be greater than the maxSize.");
+
+        this.mMaxSize = maxSize;
+        this.mMinFileSize = minFileSize;
+    }
+
+    /**
+     * Whether a file of the given length can be mapped.
+     */
+    public boolean isMappable(long length) {
+        return length > 0 && length >= mMinFileSize && length <= mMaxSize;
+    }
+
+    /**
+     * Create a body which reads the mapping of the file, the file is mapped if it is not mapped yet.
+     */
+    @NonNull
+    public RangeBody createBody(@NonNull File file, @Nullable MediaType mediaType) throws IOException {
+        return new MappedBody(acquire(file), mediaType);
+    }
+
+    /**
+     * Get the total size of the mapped files in bytes.
+     */
+    public synchronized long size() {
+        return mSize;
+    }
+
+    /**
+     * Evict all the mappings.
+     */
+    public synchronized void clear() {
+        mMappingMap.clear();
+        mSize = 0;
+    }
+
+    private synchronized Mapping acquire(File file) throws IOException {
+        String key = file.getAbsolutePath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        Mapping mapping = mMappingMap.get(key);
+        if (mapping != null && (mapping.mLastModified != lastModified || mapping.mLength != length)) {
+            mMappingMap.remove(key);
+            mSize -= mapping.mLength;
+            mapping = null;
+        }
+        if (mapping == null) {
+            mapping = new Mapping(map(file, length), lastModified, length);
+            mMappingMap.put(key, mapping);
+            mSize += length;
+
+            Iterator<Mapping> iterator = mMappingMap.values().iterator();
+            while (mSize > mMaxSize && iterator.hasNext()) {
+                Mapping eldest = iterator.next();
+                if (eldest != mapping) {
+                    mSize -= eldest.mLength;
+                    iterator.remove();
+                }
+            }
+        }
+        return mapping;
+    }
+
+    private static MappedByteBuffer[] map(File file, long length) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((length + REGION_SIZE - 1) / REGION_SIZE)];
+            for (int i = 0; i < regions.length; i++) {
+                long position = i * REGION_SIZE;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(REGION_SIZE, length - position));
+            }
+            return regions;
+        } finally {
+            IOUtils.closeQuietly(randomAccessFile);
+        }
+    }
+
+    private static class Mapping {
+
+        private final MappedByteBuffer[] mRegions;
+        private final long mLastModified;
+        private final long mLength;
+
+        private Mapping(MappedByteBuffer[] regions, long lastModified, long length) {
+            this.mRegions = regions;
+            this.mLastModified = lastModified;
+            this.mLength = length;
+        }
+    }
+
+    private static class MappedBody implements RangeBody {
+
+        private Mapping mMapping;
+        private final long mLength;
+        private final MediaType mMediaType;
+
+        private MappedBody(Mapping mapping, MediaType mediaType) {
+            this.mMapping = mapping;
+            this.mLength = mapping.mLength;
+            this.mMediaType = mediaType;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return false;
+        }
+
+        @Override
+        public long contentLength() {
+            return mLength;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return mMediaType;
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream output) throws IOException {
+            try {
+                writeTo(output, 0, mLength);
+            } finally {
+                close();
+            }
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream output, long position, long count) throws IOException {
+            Mapping mapping = mMapping;
+            if (mapping == null) {
+                throw new IOException("The mapping has been released.");
+            }
+
+            byte[] buffer = null;
+            while (count > 0) {
+                ByteBuffer region = mapping.mRegions[(int) (position / REGION_SIZE)].duplicate();
+                int offset = (int) (position % REGION_SIZE);
+                int len = (int) Math.min(count, region.limit() - offset);
+                region.position(offset);
+                region.limit(offset + len);
+
+                if (output instanceof WritableByteChannel) {
+                    WritableByteChannel channel = (WritableByteChannel) output;
+                    while (region.hasRemaining()) {
+                        if (channel.write(region) <= 0) {
+                            throw new IOException("The output does not accept more content.");
+                        }
+                    }
+                } else {
+                    if (buffer == null) {
+                        buffer = new byte[(int) Math.min(BUFFER_SIZE, count)];
+                    }
+                    while (region.hasRemaining()) {
+                        int size = Math.min(buffer.length, region.remaining());
+                        region.get(buffer, 0, size);
+                        output.write(buffer, 0, size);
+                    }
+                }
+                position += len;
+                count -= len;
+            }
+            output.flush();
+        }
+
+        /**
+         * Drop the reference to the mapping, so its pages can be released once it has been evicted.
+         */
+        @Override
+        public void close() {
+            mMapping = null;
+        }
+    }
+}
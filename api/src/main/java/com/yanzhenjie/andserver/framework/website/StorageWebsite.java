@@ -18,19 +18,27 @@ package com.yanzhenjie.andserver.framework.website;
 import android.text.TextUtils;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.yanzhenjie.andserver.error.NotFoundException;
+import com.yanzhenjie.andserver.framework.body.ByteArrayBody;
 import com.yanzhenjie.andserver.framework.body.FileBody;
 import com.yanzhenjie.andserver.framework.body.StringBody;
+import com.yanzhenjie.andserver.framework.website.FileMetadataCache.Metadata;
 import com.yanzhenjie.andserver.http.HttpRequest;
 import com.yanzhenjie.andserver.http.HttpResponse;
 import com.yanzhenjie.andserver.http.ResponseBody;
 import com.yanzhenjie.andserver.util.Assert;
-import com.yanzhenjie.andserver.util.DigestUtils;
+import com.yanzhenjie.andserver.util.IOUtils;
+import com.yanzhenjie.andserver.util.MediaType;
 import com.yanzhenjie.andserver.util.Patterns;
 
+import org.apache.httpcore.protocol.HttpCoreContext;
+
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Created by Zhenjie Yan on 2018/9/7.
@@ -38,6 +46,9 @@ import java.io.IOException;
 public class StorageWebsite extends BasicWebsite implements Patterns {
 
     private final String mRootPath;
+    private final String mAttributeKey;
+    private FileMetadataCache mMetadataCache;
+    private MappedFileCache mMappedFileCache;
 
     /**
      * Create a website object.
@@ -60,77 +71,198 @@ public class StorageWebsite extends BasicWebsite implements Patterns {
         Assert.isTrue(rootPath.matches(PATH), "The format of [%s] is wrong, it should be like [/root/project].");
 
         this.mRootPath = rootPath;
+        this.mAttributeKey = StorageWebsite.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    }
+
+    /**
+     * Keep the attributes of the files for a while, e.g. on the slow storage. The default is null, the files are
+     * queried once for every request.
+     */
+    public void setMetadataCache(@Nullable FileMetadataCache cache) {
+        this.mMetadataCache = cache;
+    }
+
+    /**
+     * Get the cache of the attributes of the files.
+     */
+    @Nullable
+    public FileMetadataCache getMetadataCache() {
+        return mMetadataCache;
+    }
+
+    /**
+     * Set the cache which maps the large files into the memory, the concurrent downloads of a file share the pages.
+     *
+     * @param cache the cache, or null to read the files as usual.
+     */
+    public void setMappedFileCache(@Nullable MappedFileCache cache) {
+        this.mMappedFileCache = cache;
+    }
+
+    /**
+     * Get the cache which maps the large files into the memory.
+     */
+    @Nullable
+    public MappedFileCache getMappedFileCache() {
+        return mMappedFileCache;
     }
 
     @Override
     public boolean intercept(@NonNull HttpRequest request) {
-        String httpPath = request.getPath();
-        File file = findPathFile(httpPath);
-        return file != null;
+        return resolve(request).mFile != null;
     }
 
     @Override
     public String getETag(@NonNull HttpRequest request) throws Throwable {
-        String httpPath = request.getPath();
-        File file = findPathFile(httpPath);
-        if (file != null) {
-            String tag = file.getAbsolutePath() + file.lastModified();
-            return DigestUtils.md5DigestAsHex(tag);
+        Resolution resolution = resolve(request);
+        if (resolution.mFile != null) {
+            String eTag = resolution.mFile.getETag();
+            String encoding = findEncoding(request, resolution);
+            return encoding == null ? eTag : eTag + "-" + encoding;
         }
         return null;
     }
 
     @Override
     public long getLastModified(@NonNull HttpRequest request) throws Throwable {
-        String httpPath = request.getPath();
-        File file = findPathFile(httpPath);
-        if (file != null) {
-            return file.lastModified();
+        Resolution resolution = resolve(request);
+        if (resolution.mFile != null) {
+            return resolution.mFile.lastModified();
         }
         return -1;
     }
 
+    @Nullable
+    @Override
+    protected MediaType getMediaType(@NonNull HttpRequest request) {
+        Resolution resolution = resolve(request);
+        if (resolution.mFile != null) {
+            return MediaType.getFileMediaType(resolution.mFile.getFile().getName());
+        }
+        return null;
+    }
+
     @NonNull
     @Override
     public ResponseBody getBody(@NonNull HttpRequest request, @NonNull HttpResponse response) throws IOException {
         String httpPath = request.getPath();
-        File targetFile = new File(mRootPath, httpPath);
-        if (targetFile.exists() && targetFile.isFile()) {
-            return new FileBody(targetFile);
+        Resolution resolution = resolve(request);
+        if (resolution.mFile == null) {
+            throw new NotFoundException(httpPath);
         }
 
-        File indexFile = new File(targetFile, getIndexFileName());
-        if (indexFile.exists() && indexFile.isFile()) {
-            if (!httpPath.endsWith(File.separator)) {
-                String redirectPath = addEndSlash(httpPath);
-                String query = queryString(request);
-                response.sendRedirect(redirectPath + "?" + query);
-                return new StringBody("");
-            }
+        if (resolution.isIndex && !httpPath.endsWith(File.separator)) {
+            String redirectPath = addEndSlash(httpPath);
+            String query = queryString(request);
+            response.sendRedirect(redirectPath + "?" + query);
+            return new StringBody("");
+        }
+        return createBody(request, response, resolution);
+    }
 
-            return new FileBody(indexFile);
+    private ResponseBody createBody(HttpRequest request, HttpResponse response, Resolution resolution)
+        throws IOException {
+        File file = resolution.mFile.getFile();
+        MediaType mediaType = MediaType.getFileMediaType(file.getName());
+        String encoding = findEncoding(request, resolution);
+        setEncodingHeaders(response, encoding);
+        Metadata target = encoding == null ? resolution.mFile : resolution.mEncodedFile;
+        File targetFile = target.getFile();
+
+        ContentCache cache = getContentCache();
+        long length = target.length();
+        if (cache != null && cache.isCacheable(length)) {
+            String key = targetFile.getAbsolutePath();
+            long version = target.lastModified();
+            byte[] content = cache.get(key, version);
+            if (content == null || content.length != length) {
+                InputStream stream = new FileInputStream(targetFile);
+                try {
+                    content = IOUtils.toByteArray(stream, (int) length);
+                } finally {
+                    IOUtils.closeQuietly(stream);
+                }
+                cache.put(key, version, content);
+            }
+            return new ByteArrayBody(content, mediaType);
         }
 
-        throw new NotFoundException(httpPath);
+        MappedFileCache mappedFileCache = mMappedFileCache;
+        if (mappedFileCache != null && mappedFileCache.isMappable(length)) {
+            return mappedFileCache.createBody(targetFile, mediaType);
+        }
+        return new FileBody(targetFile, mediaType);
     }
 
     /**
-     * Find the path specified resource.
+     * Find the precompressed sibling which is accepted by the client, the stale one is ignored.
      *
-     * @param httpPath path.
-     *
-     * @return return if the file is found.
+     * @return the encoding of the sibling, or null if it is not found.
      */
-    private File findPathFile(@NonNull String httpPath) {
+    @Nullable
+    private String findEncoding(@NonNull HttpRequest request, @NonNull Resolution resolution) {
+        if (!resolution.isEncodingResolved) {
+            Metadata file = resolution.mFile;
+            for (String encoding: getAcceptedEncodings(request)) {
+                File encodedFile = new File(getEncodedPath(file.getFile().getPath(), encoding));
+                Metadata metadata = FileMetadataCache.get(mMetadataCache, encodedFile);
+                if (metadata.isFile() && metadata.lastModified() >= file.lastModified()) {
+                    resolution.mEncoding = encoding;
+                    resolution.mEncodedFile = metadata;
+                    break;
+                }
+            }
+            resolution.isEncodingResolved = true;
+        }
+        return resolution.mEncoding;
+    }
+
+    /**
+     * Find the path specified resource, it is resolved once for each request.
+     */
+    @NonNull
+    private Resolution resolve(@NonNull HttpRequest request) {
+        // The attributes belong to the connection, the resolution is only valid for the current message.
+        Object message = request.getAttribute(HttpCoreContext.HTTP_REQUEST);
+        String httpPath = request.getPath();
+        Object attribute = request.getAttribute(mAttributeKey);
+        if (attribute instanceof Resolution) {
+            Resolution resolution = (Resolution) attribute;
+            if (message != null && resolution.mMessage == message && resolution.mPath.equals(httpPath)) {
+                return resolution;
+            }
+        }
+
+        Resolution resolution = new Resolution(message, httpPath);
         File targetFile = new File(mRootPath, httpPath);
-        if (targetFile.exists() && targetFile.isFile()) {
-            return targetFile;
+        Metadata target = FileMetadataCache.get(mMetadataCache, targetFile);
+        if (target.isFile()) {
+            resolution.mFile = target;
+        } else {
+            Metadata index = FileMetadataCache.get(mMetadataCache, new File(targetFile, getIndexFileName()));
+            if (index.isFile()) {
+                resolution.mFile = index;
+                resolution.isIndex = true;
+            }
         }
+        request.setAttribute(mAttributeKey, resolution);
+        return resolution;
+    }
+
+    private static class Resolution {
 
-        File indexFile = new File(targetFile, getIndexFileName());
-        if (indexFile.exists() && indexFile.isFile()) {
-            return indexFile;
+        private final Object mMessage;
+        private final String mPath;
+        private Metadata mFile;
+        private boolean isIndex;
+
+        private boolean isEncodingResolved;
+        private String mEncoding;
+        private Metadata mEncodedFile;
+
+        private Resolution(Object message, String path) {
+            this.mMessage = message;
+            this.mPath = path;
         }
-        return null;
     }
-}
\ No newline at end of file
+}
@@ -18,8 +18,11 @@ package com.yanzhenjie.andserver.framework.website;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.yanzhenjie.andserver.framework.CacheControl;
 import com.yanzhenjie.andserver.framework.ETag;
 import com.yanzhenjie.andserver.framework.LastModified;
+import com.yanzhenjie.andserver.framework.cache.CachePolicy;
+import com.yanzhenjie.andserver.framework.cache.CacheRules;
 import com.yanzhenjie.andserver.framework.handler.HandlerAdapter;
 import com.yanzhenjie.andserver.framework.handler.RequestHandler;
 import com.yanzhenjie.andserver.framework.view.BodyView;
@@ -27,13 +30,32 @@ import com.yanzhenjie.andserver.framework.view.View;
 import com.yanzhenjie.andserver.http.HttpRequest;
 import com.yanzhenjie.andserver.http.HttpResponse;
 import com.yanzhenjie.andserver.http.ResponseBody;
+import com.yanzhenjie.andserver.util.MediaType;
 
 import java.io.IOException;
 
 /**
  * Created by Zhenjie Yan on 2018/9/4.
  */
-public abstract class Website implements HandlerAdapter, ETag, LastModified {
+public abstract class Website implements HandlerAdapter, ETag, LastModified, CacheControl {
+
+    private CacheRules mCacheRules;
+
+    /**
+     * Set the rules which select the {@code Cache-Control} of the resources. The default is null, the responses are
+     * {@code private} and are revalidated every time.
+     */
+    public void setCacheRules(@Nullable CacheRules rules) {
+        this.mCacheRules = rules;
+    }
+
+    /**
+     * Get the rules which select the {@code Cache-Control} of the resources.
+     */
+    @Nullable
+    public CacheRules getCacheRules() {
+        return mCacheRules;
+    }
 
     @Nullable
     @Override
@@ -46,29 +68,62 @@ public abstract class Website implements HandlerAdapter, ETag, LastModified {
         return 0;
     }
 
+    @Nullable
+    @Override
+    public CachePolicy getCacheControl(@NonNull HttpRequest request) throws Throwable {
+        CacheRules rules = mCacheRules;
+        if (rules == null) {
+            return null;
+        }
+        return rules.match(request.getPath(), getMediaType(request));
+    }
+
+    /**
+     * Get the media type of the requested resource for the {@link CacheRules}, the default is guessed from the path.
+     *
+     * @return the media type, or null if it is unknown.
+     */
+    @Nullable
+    protected MediaType getMediaType(@NonNull HttpRequest request) {
+        String path = request.getPath();
+        if (path.endsWith("/")) {
+            return null;
+        }
+        return MediaType.getFileMediaType(path);
+    }
+
     @Nullable
     @Override
     public RequestHandler getHandler(@NonNull HttpRequest request) {
-        return new RequestHandler() {
-            @Nullable
-            @Override
-            public String getETag(@NonNull HttpRequest request) throws Throwable {
-                return Website.this.getETag(request);
-            }
-
-            @Override
-            public long getLastModified(@NonNull HttpRequest request) throws Throwable {
-                return Website.this.getLastModified(request);
-            }
-
-            @Override
-            public View handle(@NonNull HttpRequest request, @NonNull HttpResponse response) throws Throwable {
-                return new BodyView(getBody(request, response));
-            }
-        };
+        return new WebsiteHandler();
     }
 
     @NonNull
     public abstract ResponseBody getBody(@NonNull HttpRequest request, @NonNull HttpResponse response)
         throws IOException;
-}
\ No newline at end of file
+
+    private class WebsiteHandler implements RequestHandler, CacheControl {
+
+        @Nullable
+        @Override
+        public String getETag(@NonNull HttpRequest request) throws Throwable {
+            return Website.this.getETag(request);
+        }
+
+        @Override
+        public long getLastModified(@NonNull HttpRequest request) throws Throwable {
+            return Website.this.getLastModified(request);
+        }
+
+        @Nullable
+        @Override
+        public CachePolicy getCacheControl(@NonNull HttpRequest request) throws Throwable {
+            return Website.this.getCacheControl(request);
+        }
+
+        @Override
+        public View handle(@NonNull HttpRequest request, @NonNull HttpResponse response) throws Throwable {
+            return new BodyView(getBody(request, response));
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.websocket;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.AndServer;
+import com.yanzhenjie.andserver.http.HttpRequest;
+import com.yanzhenjie.andserver.http.UpgradeHandler;
+import com.yanzhenjie.andserver.util.Assert;
+
+import org.apache.commons.io.Charsets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p> The frames of a WebSocket connection. </p>
+ *
+ * The frames are read by the worker of the server one at a time. The outgoing frames are queued, a worker of the
+ * server is started when the queue was idle and writes the frames until the queue is empty, so the senders are not
+ * blocked by a slow client and no thread is dedicated to a connection.
+ */
+final class WebSocketConnection implements WebSocketSession, UpgradeHandler {
+
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_BINARY = 0x2;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+
+    private static final int MAX_CONTROL_PAYLOAD = 125;
+    private static final long CLOSE_TIMEOUT = 1000;
+
+    private static final Charset UTF_8 = Charsets.toCharset("utf-8");
+
+    private final HttpRequest mRequest;
+    private final WebSocketHandler mHandler;
+    private final int mMaxFrameSize;
+    private final int mMaxQueueSize;
+
+    private DataInputStream mInput;
+    private OutputStream mOutput;
+    private Closeable mConnection;
+    private Executor mExecutor;
+
+    private final Object mLock = new Object();
+    private final Queue<byte[]> mQueue = new ArrayDeque<>();
+    private int mQueueSize;
+    private boolean isWriting;
+    private volatile boolean isClosing;
+    private final AtomicBoolean isClosed = new AtomicBoolean();
+
+    private int mMessageOpcode;
+    private ByteArrayOutputStream mMessage;
+
+    WebSocketConnection(HttpRequest request, WebSocketHandler handler, int maxFrameSize, int maxQueueSize) {
+        this.mRequest = request;
+        this.mHandler = handler;
+        this.mMaxFrameSize = maxFrameSize;
+        this.mMaxQueueSize = maxQueueSize;
+    }
+
+    @NonNull
+    @Override
+    public HttpRequest getRequest() {
+        return mRequest;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return mConnection != null && !isClosing;
+    }
+
+    @Override
+    public boolean sendText(@NonNull String text) {
+        return send(OP_TEXT, text.getBytes(UTF_8));
+    }
+
+    @Override
+    public boolean sendBinary(@NonNull byte[] data) {
+        return send(OP_BINARY, data);
+    }
+
+    @Override
+    public boolean sendPing(@NonNull byte[] data) {
+        Assert.isTrue(data.length <= MAX_CONTROL_PAYLOAD, "The data of the ping cannot be larger than 125 bytes.");
+        return send(OP_PING, data);
+    }
+
+    @Override
+    public void close(int code, @Nullable String reason) {
+        if (sendClose(code, reason)) {
+            awaitWriter();
+            notifyClose(code, reason);
+            closeConnection();
+        }
+    }
+
+    @Override
+    public void onUpgrade(@NonNull InputStream input, @NonNull OutputStream output, @NonNull Closeable connection,
+                          @NonNull Executor executor) {
+        this.mInput = new DataInputStream(input);
+        this.mOutput = output;
+        this.mConnection = connection;
+        this.mExecutor = executor;
+
+        try {
+            mHandler.onOpen(this);
+        } catch (RuntimeException e) {
+            Log.e(AndServer.TAG, "An error occurred while opening the WebSocket.", e);
+            close(CLOSE_INTERNAL_ERROR, null);
+        }
+    }
+
+    @Override
+    public boolean onReadable() throws IOException {
+        int head = mInput.read();
+        if (head == -1) {
+            return false;
+        }
+        int second = mInput.readUnsignedByte();
+
+        boolean fin = (head & 0x80) != 0;
+        int opcode = head & 0x0F;
+        if ((head & 0x70) != 0) {
+            return fail(CLOSE_PROTOCOL_ERROR, "The extension is not supported.");
+        }
+        if ((second & 0x80) == 0) {
+            return fail(CLOSE_PROTOCOL_ERROR, "The frame is not masked.");
+        }
+
+        long length = second & 0x7F;
+        if (length == 126) {
+            length = mInput.readUnsignedShort();
+        } else if (length == 127) {
+            length = mInput.readLong();
+        }
+        boolean isControl = (opcode & 0x08) != 0;
+        if (isControl && (!fin || length > MAX_CONTROL_PAYLOAD)) {
+            return fail(CLOSE_PROTOCOL_ERROR, "The control frame is invalid.");
+        }
+        if (length < 0 || length > mMaxFrameSize) {
+            return fail(CLOSE_TOO_BIG, "The frame is too big.");
+        }
+
+        byte[] mask = new byte[4];
+        mInput.readFully(mask);
+        byte[] payload = new byte[(int) length];
+        mInput.readFully(payload);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i & 3];
+        }
+
+        try {
+            switch (opcode) {
+                case OP_CONTINUATION: {
+                    if (mMessage == null) {
+                        return fail(CLOSE_PROTOCOL_ERROR, "There is no message to continue.");
+                    }
+                    if (mMessage.size() + payload.length > mMaxFrameSize) {
+                        return fail(CLOSE_TOO_BIG, "The message is too big.");
+                    }
+                    mMessage.write(payload, 0, payload.length);
+                    if (fin) {
+                        byte[] message = mMessage.toByteArray();
+                        mMessage = null;
+                        return onMessage(mMessageOpcode, message);
+                    }
+                    return true;
+                }
+                case OP_TEXT:
+                case OP_BINARY: {
+                    if (mMessage != null) {
+                        return fail(CLOSE_PROTOCOL_ERROR, "The previous message is not finished.");
+                    }
+                    if (fin) {
+                        return onMessage(opcode, payload);
+                    }
+                    mMessageOpcode = opcode;
+                    mMessage = new ByteArrayOutputStream(payload.length);
+                    mMessage.write(payload, 0, payload.length);
+                    return true;
+                }
+                case OP_CLOSE: {
+                    return onCloseFrame(payload);
+                }
+                case OP_PING: {
+                    send(OP_PONG, payload);
+                    mHandler.onPing(this, payload);
+                    return !isClosing;
+                }
+                case OP_PONG: {
+                    return true;
+                }
+                default: {
+                    return fail(CLOSE_PROTOCOL_ERROR, "The opcode is not supported.");
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.e(AndServer.TAG, "An error occurred while handling the WebSocket message.", e);
+            return fail(CLOSE_INTERNAL_ERROR, null);
+        }
+    }
+
+    @Override
+    public void onClosed() {
+        synchronized (mLock) {
+            isClosing = true;
+            mQueue.clear();
+            mQueueSize = 0;
+        }
+        notifyClose(CLOSE_ABNORMAL, null);
+    }
+
+    private boolean onMessage(int opcode, byte[] payload) {
+        if (opcode == OP_TEXT) {
+            String text;
+            try {
+                text = UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(payload))
+                    .toString();
+            } catch (CharacterCodingException e) {
+                return fail(CLOSE_INVALID_PAYLOAD, "The text is not UTF-8.");
+            }
+            mHandler.onText(this, text);
+        } else {
+            mHandler.onBinary(this, payload);
+        }
+        return !isClosing;
+    }
+
+    private boolean onCloseFrame(byte[] payload) {
+        int code = CLOSE_NORMAL;
+        String reason = null;
+        if (payload.length >= 2) {
+            code = ((payload[0] & 0xFF) << 8) | (payload[1] & 0xFF);
+            if (payload.length > 2) {
+                reason = new String(payload, 2, payload.length - 2, UTF_8);
+            }
+        }
+        sendClose(code, null);
+        awaitWriter();
+        notifyClose(code, reason);
+        return false;
+    }
+
+    /**
+     * Close the connection because of the peer, the caller returns the result from {@link #onReadable()}.
+     */
+    private boolean fail(int code, @Nullable String reason) {
+        sendClose(code, reason);
+        awaitWriter();
+        notifyClose(code, reason);
+        return false;
+    }
+
+    private void notifyClose(int code, @Nullable String reason) {
+        if (isClosed.compareAndSet(false, true)) {
+            try {
+                mHandler.onClose(this, code, reason);
+            } catch (RuntimeException e) {
+                Log.e(AndServer.TAG, "An error occurred while closing the WebSocket.", e);
+            }
+        }
+    }
+
+    private boolean sendClose(int code, @Nullable String reason) {
+        byte[] data = reason == null ? new byte[0] : reason.getBytes(UTF_8);
+        int length = Math.min(data.length, MAX_CONTROL_PAYLOAD - 2);
+        byte[] payload = new byte[2 + length];
+        payload[0] = (byte) (code >>> 8);
+        payload[1] = (byte) code;
+        System.arraycopy(data, 0, payload, 2, length);
+        return send(OP_CLOSE, payload);
+    }
+
+    private boolean send(int opcode, byte[] payload) {
+        byte[] frame = frame(opcode, payload);
+        synchronized (mLock) {
+            if (isClosing) {
+                return false;
+            }
+            if (opcode == OP_CLOSE) {
+                isClosing = true;
+            } else if (mQueueSize + frame.length > mMaxQueueSize) {
+                return false;
+            }
+            mQueue.add(frame);
+            mQueueSize += frame.length;
+            if (isWriting || mOutput == null) {
+                return true;
+            }
+            isWriting = true;
+        }
+
+        try {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    drain();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // All the workers are busy, the sender writes the frames.
+            drain();
+        }
+        return true;
+    }
+
+    private void drain() {
+        while (true) {
+            byte[] frame;
+            synchronized (mLock) {
+                frame = mQueue.poll();
+                if (frame == null) {
+                    isWriting = false;
+                    mLock.notifyAll();
+                    return;
+                }
+                mQueueSize -= frame.length;
+            }
+
+            try {
+                mOutput.write(frame);
+                mOutput.flush();
+            } catch (IOException e) {
+                synchronized (mLock) {
+                    isClosing = true;
+                    mQueue.clear();
+                    mQueueSize = 0;
+                    isWriting = false;
+                    mLock.notifyAll();
+                }
+                closeConnection();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Wait for the queued frames to be written, e.g. the close frame, before the connection is closed.
+     */
+    private void awaitWriter() {
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT;
+        synchronized (mLock) {
+            long remaining;
+            while (isWriting && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    mLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void closeConnection() {
+        if (mConnection != null) {
+            try {
+                mConnection.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static byte[] frame(int opcode, byte[] payload) {
+        int length = payload.length;
+        int header = length < 126 ? 2 : (length <= 0xFFFF ? 4 : 10);
+        byte[] frame = new byte[header + length];
+        frame[0] = (byte) (0x80 | opcode);
+        if (length < 126) {
+            frame[1] = (byte) length;
+        } else if (length <= 0xFFFF) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >>> 8);
+            frame[3] = (byte) length;
+        } else {
+            frame[1] = 127;
+            for (int i = 0; i < 8; i++) {
+                frame[2 + i] = (byte) ((long) length >>> (56 - 8 * i));
+            }
+        }
+        System.arraycopy(payload, 0, frame, header, length);
+        return frame;
+    }
+}
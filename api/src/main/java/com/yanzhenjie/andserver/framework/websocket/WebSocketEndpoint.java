@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.websocket;
+
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+
+import com.yanzhenjie.andserver.http.HttpContext;
+import com.yanzhenjie.andserver.http.HttpHeaders;
+import com.yanzhenjie.andserver.http.HttpMethod;
+import com.yanzhenjie.andserver.http.HttpRequest;
+import com.yanzhenjie.andserver.http.HttpResponse;
+import com.yanzhenjie.andserver.http.StatusCode;
+import com.yanzhenjie.andserver.util.Assert;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * <p> A WebSocket endpoint which is mapped to a path, it performs the handshake of the upgrade request. </p>
+ */
+public class WebSocketEndpoint {
+
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final String VERSION = "13";
+
+    private static final String SEC_WEBSOCKET_KEY = "Sec-WebSocket-Key";
+    private static final String SEC_WEBSOCKET_VERSION = "Sec-WebSocket-Version";
+    private static final String SEC_WEBSOCKET_ACCEPT = "Sec-WebSocket-Accept";
+
+    private final WebSocketHandler mHandler;
+    private final int mMaxFrameSize;
+    private final int mMaxQueueSize;
+
+    /**
+     * Create an endpoint.
+     *
+     * @param handler the handler of the sessions.
+     * @param maxFrameSize the max size of the incoming frames and messages in bytes.
+     * @param maxQueueSize the max size of the outgoing data which waits to be sent in bytes.
+     */
+    public WebSocketEndpoint(@NonNull WebSocketHandler handler, int maxFrameSize, int maxQueueSize) {
+        Assert.notNull(handler, "The handler cannot be null.");
+        Assert.isTrue(maxFrameSize > 0, "The maxFrameSize must be greater than 0.");
+        Assert.isTrue(maxQueueSize > 0, "The maxQueueSize must be greater than 0.");
+
+        this.mHandler = handler;
+        this.mMaxFrameSize = maxFrameSize;
+        this.mMaxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Whether the request asks to switch to the WebSocket.
+     */
+    public boolean isUpgrade(@NonNull HttpRequest request) {
+        String upgrade = request.getHeader(HttpHeaders.UPGRADE);
+        if (!"websocket".equalsIgnoreCase(upgrade)) {
+            return false;
+        }
+        for (String connection: request.getHeaders(HttpHeaders.CONNECTION)) {
+            for (String token: connection.split(",")) {
+                if ("upgrade".equalsIgnoreCase(token.trim())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Respond to the upgrade request. The connection is handed to the server with {@link
+     * HttpContext#UPGRADE_HANDLER} if the handshake is accepted.
+     */
+    public void handshake(@NonNull HttpRequest request, @NonNull HttpResponse response) {
+        String key = request.getHeader(SEC_WEBSOCKET_KEY);
+        if (request.getMethod() != HttpMethod.GET || key == null || key.trim().length() == 0) {
+            response.setStatus(StatusCode.SC_BAD_REQUEST);
+            return;
+        }
+        if (!VERSION.equals(request.getHeader(SEC_WEBSOCKET_VERSION))) {
+            response.setStatus(StatusCode.SC_BAD_REQUEST);
+            response.setHeader(SEC_WEBSOCKET_VERSION, VERSION);
+            return;
+        }
+
+        response.setStatus(StatusCode.SC_SWITCHING_PROTOCOLS);
+        response.setHeader(HttpHeaders.UPGRADE, "websocket");
+        response.setHeader(HttpHeaders.CONNECTION, "Upgrade");
+        response.setHeader(SEC_WEBSOCKET_ACCEPT, accept(key.trim()));
+
+        WebSocketConnection connection = new WebSocketConnection(request, mHandler, mMaxFrameSize, mMaxQueueSize);
+        request.setAttribute(HttpContext.UPGRADE_HANDLER, connection);
+    }
+
+    private static String accept(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest((key + GUID).getBytes("ISO-8859-1"));
+            return Base64.encodeToString(bytes, Base64.NO_WRAP);
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.websocket;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * <p> The callbacks of a WebSocket endpoint, they are invoked in the worker thread which reads the connection, one
+ * at a time for each session. </p>
+ */
+public interface WebSocketHandler {
+
+    /**
+     * The handshake has been completed.
+     *
+     * @param session the session of the connection.
+     */
+    void onOpen(@NonNull WebSocketSession session);
+
+    /**
+     * Received a text message.
+     *
+     * @param session the session of the connection.
+     * @param text the message.
+     */
+    void onText(@NonNull WebSocketSession session, @NonNull String text);
+
+    /**
+     * Received a binary message.
+     *
+     * @param session the session of the connection.
+     * @param data the message.
+     */
+    void onBinary(@NonNull WebSocketSession session, @NonNull byte[] data);
+
+    /**
+     * Received a ping, the pong has been sent already.
+     *
+     * @param session the session of the connection.
+     * @param data the application data of the ping.
+     */
+    void onPing(@NonNull WebSocketSession session, @NonNull byte[] data);
+
+    /**
+     * The connection has been closed, it is invoked once for each session.
+     *
+     * @param session the session of the connection.
+     * @param code the status code, {@code 1006} if the connection was closed without a close frame.
+     * @param reason the reason, or null.
+     */
+    void onClose(@NonNull WebSocketSession session, int code, @Nullable String reason);
+}
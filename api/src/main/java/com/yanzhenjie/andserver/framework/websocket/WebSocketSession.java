@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.framework.websocket;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.http.HttpRequest;
+
+/**
+ * <p> A WebSocket connection, the messages can be sent from any thread. </p>
+ *
+ * Each session has a send queue which is limited by {@code maxQueueSize}, a message is dropped and the method returns
+ * false if the queue is full, e.g. the client is slower than the producer.
+ */
+public interface WebSocketSession {
+
+    int CLOSE_NORMAL = 1000;
+    int CLOSE_GOING_AWAY = 1001;
+    int CLOSE_PROTOCOL_ERROR = 1002;
+    int CLOSE_UNSUPPORTED_DATA = 1003;
+    int CLOSE_ABNORMAL = 1006;
+    int CLOSE_INVALID_PAYLOAD = 1007;
+    int CLOSE_POLICY_VIOLATION = 1008;
+    int CLOSE_TOO_BIG = 1009;
+    int CLOSE_INTERNAL_ERROR = 1011;
+
+    /**
+     * Get the handshake request, e.g. the headers and the parameters.
+     */
+    @NonNull
+    HttpRequest getRequest();
+
+    /**
+     * Whether the connection is open and the messages can be sent.
+     */
+    boolean isOpen();
+
+    /**
+     * Send a text message.
+     *
+     * @return true if the message has been queued, false if the session is closed or the queue is full.
+     */
+    boolean sendText(@NonNull String text);
+
+    /**
+     * Send a binary message.
+     *
+     * @return true if the message has been queued, false if the session is closed or the queue is full.
+     */
+    boolean sendBinary(@NonNull byte[] data);
+
+    /**
+     * Send a ping, the application data cannot be larger than 125 bytes.
+     *
+     * @return true if the ping has been queued, false if the session is closed or the queue is full.
+     */
+    boolean sendPing(@NonNull byte[] data);
+
+    /**
+     * Send the close frame and close the connection.
+     *
+     * @param code the status code.
+     * @param reason the reason, or null.
+     */
+    void close(int code, @Nullable String reason);
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http;
+
+/**
+ * <p> The asynchronous processing of the current request, the server offers it as the attribute {@link
+ * HttpContext#ASYNC_CONTEXT} when the transport can send the response after the handler returns. </p>
+ */
+public interface AsyncContext {
+
+    /**
+     * Keep the response after the handler returns, the worker thread is released and the response is sent when
+     * {@link #complete()} is called.
+     */
+    void suspend();
+
+    /**
+     * Send the response, it can be called from any thread.
+     */
+    void complete();
+}
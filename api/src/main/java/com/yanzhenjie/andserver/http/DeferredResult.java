@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.yanzhenjie.andserver.error.AsyncTimeoutException;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * <p> The result of a handler which is produced later, e.g. by another thread. </p>
+ *
+ * <pre>
+ * <code>@GetMapping("/message")</code>
+ * public DeferredResult&lt;String&gt; message() {
+ *     DeferredResult&lt;String&gt; result = new DeferredResult&lt;&gt;();
+ *     mQueue.add(result);
+ *     return result;
+ * }
+ *
+ * // Some time later, in any thread.
+ * result.setResult("Hello");
+ * </pre>
+ *
+ * The result is resolved by the {@link com.yanzhenjie.andserver.framework.view.ViewResolver} like the return value of
+ * a synchronous handler. If it is not set within the timeout, the response is {@code 503}.
+ */
+public class DeferredResult<T> {
+
+    /**
+     * Adapt the stage, the result is set when the stage completes.
+     *
+     * @param stage {@link CompletionStage}, e.g. {@code CompletableFuture}.
+     *
+     * @return {@link DeferredResult}.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    public static <T> DeferredResult<T> from(@NonNull CompletionStage<T> stage) {
+        final DeferredResult<T> result = new DeferredResult<>();
+        stage.whenComplete(new BiConsumer<T, Throwable>() {
+            @Override
+            public void accept(T value, Throwable error) {
+                if (error != null) {
+                    result.setError(error);
+                } else {
+                    result.setResult(value);
+                }
+            }
+        });
+        return result;
+    }
+
+    private final long mTimeout;
+    private final boolean hasTimeoutResult;
+    private final T mTimeoutResult;
+
+    private boolean isDone;
+    private Object mResult;
+    private Throwable mError;
+    private Callback mCallback;
+    private ScheduledFuture<?> mTimeoutFuture;
+
+    /**
+     * Create a result with the default timeout of the server.
+     */
+    public DeferredResult() {
+        this(0);
+    }
+
+    /**
+     * Create a result.
+     *
+     * @param timeout the timeout in milliseconds, 0 means the default timeout of the server.
+     */
+    public DeferredResult(long timeout) {
+        this.mTimeout = timeout;
+        this.hasTimeoutResult = false;
+        this.mTimeoutResult = null;
+    }
+
+    /**
+     * Create a result.
+     *
+     * @param timeout the timeout in milliseconds, 0 means the default timeout of the server.
+     * @param timeoutResult the result used when the timeout elapses.
+     */
+    public DeferredResult(long timeout, @Nullable T timeoutResult) {
+        this.mTimeout = timeout;
+        this.hasTimeoutResult = true;
+        this.mTimeoutResult = timeoutResult;
+    }
+
+    /**
+     * Get the timeout in milliseconds, 0 means the default timeout of the server.
+     */
+    public long getTimeout() {
+        return mTimeout;
+    }
+
+    /**
+     * Set the result.
+     *
+     * @param result the result.
+     *
+     * @return true if the result was set, false if it was set before or has expired.
+     */
+    public boolean setResult(@Nullable T result) {
+        return done(result, null);
+    }
+
+    /**
+     * Set an error, it is resolved by the {@link com.yanzhenjie.andserver.framework.ExceptionResolver}.
+     *
+     * @param error the error.
+     *
+     * @return true if the error was set, false if the result was set before or has expired.
+     */
+    public boolean setError(@NonNull Throwable error) {
+        return done(null, error);
+    }
+
+    /**
+     * Whether the result has been set or has expired.
+     */
+    public synchronized boolean isSetOrExpired() {
+        return isDone;
+    }
+
+    /**
+     * Set the callback of the result, it is used by the framework. The callback is invoked once, in the thread which
+     * sets the result, or immediately if the result has been set.
+     *
+     * @param timeout the timeout in milliseconds if {@link #getTimeout()} is 0.
+     * @param callback {@link Callback}.
+     */
+    public void setCallback(long timeout, @NonNull Callback callback) {
+        final long actualTimeout = mTimeout > 0 ? mTimeout : timeout;
+        synchronized (this) {
+            if (!isDone) {
+                mCallback = callback;
+                if (actualTimeout > 0) {
+                    mTimeoutFuture = Timer.INSTANCE.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (hasTimeoutResult) {
+                                done(mTimeoutResult, null);
+                            } else {
+                                done(null, new AsyncTimeoutException(actualTimeout));
+                            }
+                        }
+                    }, actualTimeout, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+        }
+        callback.onResult(mResult, mError);
+    }
+
+    private boolean done(Object result, Throwable error) {
+        Callback callback;
+        synchronized (this) {
+            if (isDone) {
+                return false;
+            }
+            isDone = true;
+            mResult = result;
+            mError = error;
+
+            callback = mCallback;
+            mCallback = null;
+            if (mTimeoutFuture != null) {
+                Timer.cancel(mTimeoutFuture);
+                mTimeoutFuture = null;
+            }
+        }
+
+        if (callback != null) {
+            callback.onResult(result, error);
+        }
+        return true;
+    }
+
+    public interface Callback {
+
+        /**
+         * The result has been set.
+         *
+         * @param result the result, or null if there is an error.
+         * @param error the error, or null.
+         */
+        void onResult(@Nullable Object result, @Nullable Throwable error);
+    }
+
+    private static final class Timer {
+
+        private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable r) {
+                    Thread thread = new Thread(r, "AndServer-DeferredResult");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+        static {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                INSTANCE.setRemoveOnCancelPolicy(true);
+            }
+        }
+
+        /**
+         * Cancel the timeout and take it out of the queue, most of the results are set before they time out.
+         */
+        private static void cancel(ScheduledFuture<?> future) {
+            future.cancel(false);
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+                INSTANCE.remove((Runnable) future);
+            }
+        }
+    }
+}
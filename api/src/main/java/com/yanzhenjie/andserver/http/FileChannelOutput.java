@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p> The output of the response which can take the content from a file without copying it through the user space,
+ * e.g. {@code sendfile}. </p>
+ *
+ * The output stream which is given to {@link ResponseBody#writeTo(java.io.OutputStream)} implements it when the
+ * connection is backed by a {@link java.nio.channels.SocketChannel}.
+ */
+public interface FileChannelOutput {
+
+    /**
+     * Transfer the bytes of the file to the output.
+     *
+     * @param channel the channel of the file, its position is not changed.
+     * @param position the offset of the first byte in the file.
+     * @param count the count of the bytes.
+     */
+    void transferFrom(@NonNull FileChannel channel, long position, long count) throws IOException;
+}
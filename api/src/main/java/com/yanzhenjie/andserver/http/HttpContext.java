@@ -25,10 +25,18 @@ public interface HttpContext {
 
     String RESPONSE_PRODUCE_TYPE = "http.response.Produce";
 
+    String ROUTE_MATCH = "http.request.RouteMatch";
+
+    String ASYNC_CONTEXT = "http.request.AsyncContext";
+
+    String UPGRADE_HANDLER = "http.response.UpgradeHandler";
+
     String REQUEST_CREATED_SESSION = "http.request.Session";
 
     String HTTP_MESSAGE_CONVERTER = "http.message.converter";
 
+    String RESPONSE_CACHE = "http.response.Cache";
+
     String ANDROID_CONTEXT = "android.context";
 
     /**
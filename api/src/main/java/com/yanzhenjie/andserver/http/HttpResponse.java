@@ -152,7 +152,8 @@ public interface HttpResponse extends StatusCode, HttpHeaders {
     void sendRedirect(@NonNull String location);
 
     /**
-     * Set the response body.
+     * Set the response body. A body which implements {@link java.io.Closeable} is closed when it is replaced, or after
+     * the response has been finished whether it has been sent or not.
      *
      * @param body write the message content sent to the client.
      */
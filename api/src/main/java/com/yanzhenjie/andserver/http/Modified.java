@@ -74,6 +74,20 @@ public class Modified implements HttpHeaders {
      * @return true if the request does not require further processing.
      */
     public boolean process(@Nullable String eTag, long lastModified) {
+        return process(eTag, lastModified, null);
+    }
+
+    /**
+     * Process {@code Modified} according to given the supplied {@code Last-Modified} and {@code ETag}, the {@code
+     * Cache-Control} is sent with the response and with the {@code 304} response.
+     *
+     * @param eTag the tag of the resource.
+     * @param lastModified he last-modified timestamp in milliseconds of the resource.
+     * @param cacheControl the value of the {@code Cache-Control}, the default is {@code private}.
+     *
+     * @return true if the request does not require further processing.
+     */
+    public boolean process(@Nullable String eTag, long lastModified, @Nullable String cacheControl) {
         if (isNotModified) {
             return true;
         }
@@ -106,7 +120,7 @@ public class Modified implements HttpHeaders {
             if (!TextUtils.isEmpty(eTag) && mResponse.getHeader(ETAG) == null) {
                 mResponse.setHeader(ETAG, padETagIfNecessary(eTag));
             }
-            mResponse.setHeader(CACHE_CONTROL, "private");
+            mResponse.setHeader(CACHE_CONTROL, TextUtils.isEmpty(cacheControl) ? "private" : cacheControl);
         }
         return isNotModified;
     }
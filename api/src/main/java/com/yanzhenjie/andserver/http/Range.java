@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http;
+
+import android.text.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.util.IOUtils;
+import com.yanzhenjie.andserver.util.MediaType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static com.yanzhenjie.andserver.util.HttpDateFormat.parseDate;
+
+/**
+ * <p> Process the {@code Range} and {@code If-Range} of the request, see <a href="https://tools.ietf.org/html/rfc7233">
+ * RFC 7233</a>. </p>
+ */
+public class Range implements HttpHeaders {
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final int MAX_RANGES = 16;
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private HttpRequest mRequest;
+    private HttpResponse mResponse;
+
+    public Range(@NonNull HttpRequest request, @NonNull HttpResponse response) {
+        this.mRequest = request;
+        this.mResponse = response;
+    }
+
+    /**
+     * Process {@code Range} according to the {@code ETag} and {@code Last-Modified} of the response, the status and the
+     * headers of the response are updated.
+     *
+     * @param body the whole content.
+     *
+     * @return the body which should be sent, it is the given body if the request is not a valid range request.
+     */
+    @NonNull
+    public ResponseBody process(@NonNull RangeBody body) {
+        HttpMethod method = mRequest.getMethod();
+        long length = body.contentLength();
+        if ((method != HttpMethod.GET && method != HttpMethod.HEAD) || mResponse.getStatus() != StatusCode.SC_OK ||
+            body.isChunked() || length < 0) {
+            return body;
+        }
+        mResponse.setHeader(ACCEPT_RANGES, BYTES_UNIT);
+
+        String range = mRequest.getHeader(RANGE);
+        if (method != HttpMethod.GET || TextUtils.isEmpty(range) || !validateIfRange()) {
+            return body;
+        }
+
+        List<long[]> ranges = parseRanges(range, length);
+        if (ranges == null || (!body.isRepeatable() && !isAscending(ranges))) {
+            return body;
+        }
+        if (ranges.isEmpty()) {
+            IOUtils.closeQuietly(body);
+            mResponse.setStatus(StatusCode.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            mResponse.setHeader(CONTENT_RANGE, BYTES_UNIT + " */" + length);
+            return new PartialBody(body, 0, 0);
+        }
+
+        mResponse.setStatus(StatusCode.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long[] first = ranges.get(0);
+            mResponse.setHeader(CONTENT_RANGE, contentRange(first, length));
+            return new PartialBody(body, first[0], first[1] - first[0] + 1);
+        }
+        return new MultipartBody(body, ranges, length);
+    }
+
+    /**
+     * The range is only served if the representation is unchanged, the strong comparison is used.
+     */
+    private boolean validateIfRange() {
+        String ifRange = mRequest.getHeader(IF_RANGE);
+        if (TextUtils.isEmpty(ifRange)) {
+            return true;
+        }
+
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            String eTag = mResponse.getHeader(ETAG);
+            return eTag != null && ifRange.startsWith("\"") && ifRange.equals(eTag);
+        }
+
+        String lastModified = mResponse.getHeader(LAST_MODIFIED);
+        if (TextUtils.isEmpty(lastModified)) {
+            return false;
+        }
+        long date = parseDate(ifRange);
+        return date != -1 && date == parseDate(lastModified);
+    }
+
+    /**
+     * Parse the ranges, the unsatisfiable ranges are ignored.
+     *
+     * @return the first and the last position of the ranges, or null if the header is invalid.
+     */
+    @Nullable
+    private static List<long[]> parseRanges(String header, long length) {
+        String prefix = BYTES_UNIT + "=";
+        if (!header.regionMatches(true, 0, prefix, 0, prefix.length())) {
+            return null;
+        }
+        String[] specs = header.substring(prefix.length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        for (String spec: specs) {
+            int index = spec.indexOf('-');
+            if (index == -1) {
+                return null;
+            }
+            String first = spec.substring(0, index).trim();
+            String last = spec.substring(index + 1).trim();
+            long start;
+            long end;
+            try {
+                if (TextUtils.isEmpty(first)) {
+                    // The suffix range, e.g. the last 500 bytes.
+                    long suffix = Long.parseLong(last);
+                    if (suffix < 0) {
+                        return null;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = suffix == 0 ? -1 : length - 1;
+                } else {
+                    start = Long.parseLong(first);
+                    end = TextUtils.isEmpty(last) ? Long.MAX_VALUE : Long.parseLong(last);
+                    if (start < 0 || end < start) {
+                        return null;
+                    }
+                    end = Math.min(end, length - 1);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (start < length && start <= end) {
+                ranges.add(new long[] {start, end});
+            }
+        }
+        return ranges;
+    }
+
+    private static boolean isAscending(List<long[]> ranges) {
+        for (int i = 1; i < ranges.size(); i++) {
+            if (ranges.get(i)[0] <= ranges.get(i - 1)[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return BYTES_UNIT + " " + range[0] + "-" + range[1] + "/" + length;
+    }
+
+    private static class PartialBody implements ResponseBody, Closeable {
+
+        private final RangeBody mBody;
+        private final long mPosition;
+        private final long mCount;
+
+        private PartialBody(RangeBody body, long position, long count) {
+            this.mBody = body;
+            this.mPosition = position;
+            this.mCount = count;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return mBody.isRepeatable();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return false;
+        }
+
+        @Override
+        public long contentLength() {
+            return mCount;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return mCount > 0 ? mBody.contentType() : null;
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream output) throws IOException {
+            if (mCount == 0) {
+                return;
+            }
+            try {
+                mBody.writeTo(output, mPosition, mCount);
+            } finally {
+                mBody.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            mBody.close();
+        }
+    }
+
+    private static class MultipartBody implements ResponseBody, Closeable {
+
+        private final RangeBody mBody;
+        private final List<long[]> mRanges;
+        private final String mBoundary;
+        private final byte[][] mHeaders;
+        private final byte[] mEnd;
+
+        private MultipartBody(RangeBody body, List<long[]> ranges, long length) {
+            this.mBody = body;
+            this.mRanges = ranges;
+            this.mBoundary = UUID.randomUUID().toString().replace("-", "");
+            this.mHeaders = new byte[ranges.size()][];
+
+            MediaType mediaType = body.contentType();
+            for (int i = 0; i < ranges.size(); i++) {
+                StringBuilder builder = new StringBuilder();
+                builder.append("\r\n--").append(mBoundary).append("\r\n");
+                if (mediaType != null) {
+                    builder.append(CONTENT_TYPE).append(": ").append(mediaType.toString()).append("\r\n");
+                }
+                builder.append(CONTENT_RANGE).append(": ").append(contentRange(ranges.get(i), length));
+                builder.append("\r\n\r\n");
+                mHeaders[i] = builder.toString().getBytes(ASCII);
+            }
+            this.mEnd = ("\r\n--" + mBoundary + "--\r\n").getBytes(ASCII);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return mBody.isRepeatable();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return false;
+        }
+
+        @Override
+        public long contentLength() {
+            long length = mEnd.length;
+            for (int i = 0; i < mRanges.size(); i++) {
+                long[] range = mRanges.get(i);
+                length += mHeaders[i].length + range[1] - range[0] + 1;
+            }
+            return length;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            MediaType mediaType = new MediaType("multipart", "byteranges");
+            return new MediaType(mediaType, Collections.singletonMap("boundary", mBoundary));
+        }
+
+        @Override
+        public void writeTo(@NonNull OutputStream output) throws IOException {
+            try {
+                for (int i = 0; i < mRanges.size(); i++) {
+                    long[] range = mRanges.get(i);
+                    output.write(mHeaders[i]);
+                    mBody.writeTo(output, range[0], range[1] - range[0] + 1);
+                }
+                output.write(mEnd);
+                output.flush();
+            } finally {
+                mBody.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            mBody.close();
+        }
+    }
+}
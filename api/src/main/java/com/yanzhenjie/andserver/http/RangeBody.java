@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * <p> A body whose content can be written partly, it is used to respond to the {@code Range} request. </p>
+ *
+ * If the body is not repeatable, the ranges are written in ascending order.
+ *
+ * @see Range
+ */
+public interface RangeBody extends ResponseBody, Closeable {
+
+    /**
+     * Write a part of the content to the stream.
+     *
+     * @param output the stream.
+     * @param position the offset of the first byte in the content.
+     * @param count the count of the bytes.
+     */
+    void writeTo(@NonNull OutputStream output, long position, long count) throws IOException;
+
+    /**
+     * Release the content after the ranges have been written.
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -22,12 +22,14 @@ import com.yanzhenjie.andserver.http.cookie.Cookie;
 import com.yanzhenjie.andserver.http.cookie.CookieProcessor;
 import com.yanzhenjie.andserver.http.cookie.StandardCookieProcessor;
 import com.yanzhenjie.andserver.util.HttpDateFormat;
+import com.yanzhenjie.andserver.util.IOUtils;
 import com.yanzhenjie.andserver.util.MediaType;
 
 import org.apache.httpcore.Header;
 import org.apache.httpcore.HttpEntity;
 import org.apache.httpcore.message.BasicHeader;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -143,10 +145,15 @@ public class StandardResponse implements HttpResponse {
 
     @Override
     public void setBody(ResponseBody body) {
+        HttpEntity entity = mResponse.getEntity();
+        if (entity instanceof BodyToEntity && ((BodyToEntity) entity).mBody != body) {
+            // It will never be sent.
+            IOUtils.closeQuietly((BodyToEntity) entity);
+        }
         mResponse.setEntity(new BodyToEntity(body));
     }
 
-    private static class BodyToEntity implements HttpEntity {
+    private static class BodyToEntity implements HttpEntity, Closeable {
 
         private ResponseBody mBody;
 
@@ -201,5 +208,12 @@ public class StandardResponse implements HttpResponse {
         @Override
         public void consumeContent() {
         }
+
+        @Override
+        public void close() throws IOException {
+            if (mBody instanceof Closeable) {
+                ((Closeable) mBody).close();
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http;
+
+import androidx.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * <p> The protocol which the connection switches to after a {@code 101} response, the handler sets it as the
+ * attribute {@link HttpContext#UPGRADE_HANDLER}. </p>
+ */
+public interface UpgradeHandler {
+
+    /**
+     * The response has been sent, the connection belongs to the handler from now on.
+     *
+     * @param input the input of the connection, it contains the data after the request.
+     * @param output the output of the connection.
+     * @param connection close the connection, it can be called from any thread.
+     * @param executor the workers of the server, e.g. to write the output without blocking the caller.
+     */
+    void onUpgrade(@NonNull InputStream input, @NonNull OutputStream output, @NonNull Closeable connection,
+                   @NonNull Executor executor);
+
+    /**
+     * The connection is readable, read and process a unit of the protocol, e.g. a frame.
+     *
+     * @return false if the connection should be closed.
+     */
+    boolean onReadable() throws IOException;
+
+    /**
+     * The connection has been closed.
+     */
+    void onClosed();
+}
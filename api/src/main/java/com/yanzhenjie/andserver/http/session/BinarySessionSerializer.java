@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http.session;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.yanzhenjie.andserver.AndServer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p> A compact binary format of the session. </p>
+ *
+ * The stream starts with a magic byte and the version, the numbers are varints and the strings are the UTF-8 bytes
+ * prefixed with the length. The primitive wrappers, the strings and the byte arrays are written directly, the other
+ * {@link Serializable} attributes are written by the Java serialization, the attributes which are not serializable
+ * are skipped.
+ *
+ * The sessions which have been written by {@link JavaSessionSerializer} can still be read.
+ */
+public class BinarySessionSerializer implements SessionSerializer {
+
+    static final int MAGIC = 0xA5;
+    private static final int VERSION = 1;
+
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_BOOLEAN = 2;
+    private static final int TYPE_BYTE = 3;
+    private static final int TYPE_SHORT = 4;
+    private static final int TYPE_CHAR = 5;
+    private static final int TYPE_INT = 6;
+    private static final int TYPE_LONG = 7;
+    private static final int TYPE_FLOAT = 8;
+    private static final int TYPE_DOUBLE = 9;
+    private static final int TYPE_BYTES = 10;
+    private static final int TYPE_SERIALIZABLE = 11;
+
+    private static final int FLAG_NEW = 1;
+    private static final int FLAG_VALID = 1 << 1;
+
+    /**
+     * The first byte of the Java serialization stream.
+     */
+    private static final int JAVA_MAGIC = 0xAC;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final SessionSerializer mFallback = new JavaSessionSerializer();
+
+    @Override
+    public void write(@NonNull StandardSession session, @NonNull OutputStream output) throws IOException {
+        // The values are encoded first, so an attribute which cannot be written is skipped before the count.
+        List<String> names = new ArrayList<>();
+        List<byte[]> values = new ArrayList<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (Map.Entry<String, Object> entry: session.attributes().entrySet()) {
+            Object value = entry.getValue();
+            if (!(value instanceof Serializable)) {
+                Log.w(AndServer.TAG, String.format("The attribute %s is not serializable, it is skipped.",
+                    entry.getKey()));
+                continue;
+            }
+            buffer.reset();
+            try {
+                writeValue(buffer, value);
+            } catch (NotSerializableException e) {
+                Log.w(AndServer.TAG, String.format("The attribute %s is not serializable, it is skipped.",
+                    entry.getKey()), e);
+                continue;
+            }
+            names.add(entry.getKey());
+            values.add(buffer.toByteArray());
+        }
+
+        output.write(MAGIC);
+        output.write(VERSION);
+        writeString(output, session.getId());
+        writeVarLong(output, session.getCreatedTime());
+        writeVarLong(output, session.lastAccessedTime());
+        writeVarLong(output, zigZag(session.getMaxInactiveInterval()));
+        int flags = (session.isNewSession() ? FLAG_NEW : 0) | (session.isValid() ? FLAG_VALID : 0);
+        output.write(flags);
+
+        writeVarLong(output, names.size());
+        for (int i = 0; i < names.size(); i++) {
+            writeString(output, names.get(i));
+            output.write(values.get(i));
+        }
+        output.flush();
+    }
+
+    @NonNull
+    @Override
+    public StandardSession read(@NonNull InputStream input) throws IOException, ClassNotFoundException {
+        if (!input.markSupported()) {
+            input = new BufferedInputStream(input);
+        }
+        input.mark(1);
+        int magic = input.read();
+        if (magic == JAVA_MAGIC) {
+            input.reset();
+            return mFallback.read(input);
+        }
+        if (magic != MAGIC) {
+            throw new StreamCorruptedException("The session format is unknown.");
+        }
+        int version = readByte(input);
+        if (version != VERSION) {
+            throw new StreamCorruptedException(String.format("The session version %d is unsupported.", version));
+        }
+
+        StandardSession session = new StandardSession();
+        session.setId(readString(input));
+        session.setCreatedTime(readVarLong(input));
+        session.setLastAccessedTime(readVarLong(input));
+        session.setMaxInactiveInterval((int) unZigZag(readVarLong(input)));
+        int flags = readByte(input);
+        session.setNew((flags & FLAG_NEW) != 0);
+        session.setValid((flags & FLAG_VALID) != 0);
+
+        Map<String, Object> attributes = session.attributes();
+        long count = readVarLong(input);
+        for (long i = 0; i < count; i++) {
+            String name = readString(input);
+            attributes.put(name, readValue(input));
+        }
+        return session;
+    }
+
+    private static void writeValue(OutputStream output, Object value) throws IOException {
+        if (value instanceof String) {
+            output.write(TYPE_STRING);
+            writeString(output, (String) value);
+        } else if (value instanceof Boolean) {
+            output.write(TYPE_BOOLEAN);
+            output.write((Boolean) value ? 1 : 0);
+        } else if (value instanceof Byte) {
+            output.write(TYPE_BYTE);
+            output.write((Byte) value);
+        } else if (value instanceof Short) {
+            output.write(TYPE_SHORT);
+            writeVarLong(output, zigZag((Short) value));
+        } else if (value instanceof Character) {
+            output.write(TYPE_CHAR);
+            writeVarLong(output, (Character) value);
+        } else if (value instanceof Integer) {
+            output.write(TYPE_INT);
+            writeVarLong(output, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            output.write(TYPE_LONG);
+            writeVarLong(output, zigZag((Long) value));
+        } else if (value instanceof Float) {
+            output.write(TYPE_FLOAT);
+            writeFixed(output, Float.floatToIntBits((Float) value), 4);
+        } else if (value instanceof Double) {
+            output.write(TYPE_DOUBLE);
+            writeFixed(output, Double.doubleToLongBits((Double) value), 8);
+        } else if (value instanceof byte[]) {
+            output.write(TYPE_BYTES);
+            writeBytes(output, (byte[]) value);
+        } else {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            ObjectOutputStream stream = new ObjectOutputStream(buffer);
+            stream.writeObject(value);
+            stream.close();
+            output.write(TYPE_SERIALIZABLE);
+            writeBytes(output, buffer.toByteArray());
+        }
+    }
+
+    private static Object readValue(InputStream input) throws IOException, ClassNotFoundException {
+        int type = readByte(input);
+        switch (type) {
+            case TYPE_STRING: {
+                return readString(input);
+            }
+            case TYPE_BOOLEAN: {
+                return readByte(input) != 0;
+            }
+            case TYPE_BYTE: {
+                return (byte) readByte(input);
+            }
+            case TYPE_SHORT: {
+                return (short) unZigZag(readVarLong(input));
+            }
+            case TYPE_CHAR: {
+                return (char) readVarLong(input);
+            }
+            case TYPE_INT: {
+                return (int) unZigZag(readVarLong(input));
+            }
+            case TYPE_LONG: {
+                return unZigZag(readVarLong(input));
+            }
+            case TYPE_FLOAT: {
+                return Float.intBitsToFloat((int) readFixed(input, 4));
+            }
+            case TYPE_DOUBLE: {
+                return Double.longBitsToDouble(readFixed(input, 8));
+            }
+            case TYPE_BYTES: {
+                return readBytes(input);
+            }
+            case TYPE_SERIALIZABLE: {
+                ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(readBytes(input)));
+                try {
+                    return stream.readObject();
+                } finally {
+                    stream.close();
+                }
+            }
+            default: {
+                throw new StreamCorruptedException(String.format("The attribute type %d is unknown.", type));
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static long readVarLong(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(input);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("The varint is too long.");
+    }
+
+    private static void writeFixed(OutputStream output, long value, int count) throws IOException {
+        for (int i = count - 1; i >= 0; i--) {
+            output.write((int) (value >>> (i * 8)));
+        }
+    }
+
+    private static long readFixed(InputStream input, int count) throws IOException {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = (value << 8) | readByte(input);
+        }
+        return value;
+    }
+
+    private static void writeString(OutputStream output, String value) throws IOException {
+        writeBytes(output, value.getBytes(UTF_8));
+    }
+
+    private static String readString(InputStream input) throws IOException {
+        return new String(readBytes(input), UTF_8);
+    }
+
+    private static void writeBytes(OutputStream output, byte[] value) throws IOException {
+        writeVarLong(output, value.length);
+        output.write(value);
+    }
+
+    private static byte[] readBytes(InputStream input) throws IOException {
+        long length = readVarLong(input);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new StreamCorruptedException("The length is invalid.");
+        }
+        byte[] value = new byte[(int) length];
+        int offset = 0;
+        while (offset < value.length) {
+            int count = input.read(value, offset, value.length - offset);
+            if (count == -1) {
+                throw new EOFException();
+            }
+            offset += count;
+        }
+        return value;
+    }
+
+    private static int readByte(InputStream input) throws IOException {
+        int b = input.read();
+        if (b == -1) {
+            throw new EOFException();
+        }
+        return b;
+    }
+}
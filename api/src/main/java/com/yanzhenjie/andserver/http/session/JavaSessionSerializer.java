@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http.session;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * <p> The Java serialization of the session, it is the format of the earlier versions. </p>
+ *
+ * The sessions which have been written by {@link BinarySessionSerializer} can still be read.
+ */
+public class JavaSessionSerializer implements SessionSerializer {
+
+    private SessionSerializer mFallback;
+
+    @Override
+    public void write(@NonNull StandardSession session, @NonNull OutputStream output) throws IOException {
+        ObjectOutputStream stream = new ObjectOutputStream(output);
+        session.writeObject(stream);
+        stream.flush();
+    }
+
+    @NonNull
+    @Override
+    public StandardSession read(@NonNull InputStream input) throws IOException, ClassNotFoundException {
+        if (!input.markSupported()) {
+            input = new BufferedInputStream(input);
+        }
+        input.mark(1);
+        int magic = input.read();
+        input.reset();
+        if (magic == BinarySessionSerializer.MAGIC) {
+            if (mFallback == null) {
+                mFallback = new BinarySessionSerializer();
+            }
+            return mFallback.read(input);
+        }
+
+        ObjectInputStream stream = new ObjectInputStream(input);
+        StandardSession session = new StandardSession();
+        session.readObject(stream);
+        return session;
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http.session;
+
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.AndServer;
+import com.yanzhenjie.andserver.util.Assert;
+import com.yanzhenjie.andserver.util.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * <p> Keep all the sessions in one file, the changes are appended to the end of the file. </p>
+ *
+ * The position of the latest record of every session is kept in the memory. The file is rewritten with only the
+ * latest records when the stale records take too much space, and it is replayed when the store is opened, a record
+ * which is not completely written, e.g. the process was killed, is discarded.
+ */
+class LogStore implements Store, Closeable {
+
+    private static final byte[] MAGIC = {'A', 'S', 'L', 'G'};
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+
+    private static final int TYPE_PUT = 1;
+    private static final int TYPE_DELETE = 2;
+    private static final int RECORD_HEADER_SIZE = 9;
+
+    private static final long MIN_COMPACT_SIZE = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File mFile;
+    private final Store mLegacy;
+    private SessionSerializer mSerializer;
+
+    private RandomAccessFile mOutput;
+    private final Map<String, Record> mIndex = new HashMap<>();
+    private long mLength;
+    private long mLiveSize;
+
+    /**
+     * @param file the log file.
+     * @param legacy the sessions of the store are moved into the log when it is opened, it can be null.
+     */
+    LogStore(@NonNull File file, @Nullable Store legacy) {
+        this(file, legacy, new BinarySessionSerializer());
+    }
+
+    LogStore(@NonNull File file, @Nullable Store legacy, @NonNull SessionSerializer serializer) {
+        Assert.notNull(file, "The file cannot be null.");
+        Assert.notNull(serializer, "The serializer cannot be null.");
+
+        this.mFile = file;
+        this.mLegacy = legacy;
+        this.mSerializer = serializer;
+    }
+
+    /**
+     * Set the format of the sessions. The records of {@link BinarySessionSerializer} and {@link JavaSessionSerializer}
+     * are read by either of them, the records of the other formats may not be read after the format is changed.
+     *
+     * @param serializer {@link SessionSerializer}.
+     */
+    public synchronized void setSerializer(@NonNull SessionSerializer serializer) {
+        Assert.notNull(serializer, "The serializer cannot be null.");
+
+        this.mSerializer = serializer;
+    }
+
+    @Override
+    public synchronized boolean replace(@NonNull StandardSession session) throws IOException {
+        Assert.notNull(session, "The session can not be null.");
+
+        String id = session.getId();
+        if (TextUtils.isEmpty(id)) {
+            throw new IllegalStateException("The session id can not be empty or null.");
+        }
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        writeId(payload, id);
+        mSerializer.write(session, payload);
+
+        open();
+        Record record = append(TYPE_PUT, payload.toByteArray());
+        Record previous = mIndex.put(id, record);
+        mLiveSize += record.mLength - (previous == null ? 0 : previous.mLength);
+        compactIfNeeded();
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public synchronized StandardSession getSession(@NonNull String id) throws IOException, ClassNotFoundException {
+        if (TextUtils.isEmpty(id)) {
+            throw new IllegalArgumentException("The id can not be empty or null.");
+        }
+
+        open();
+        Record record = mIndex.get(id);
+        if (record == null) {
+            return null;
+        }
+
+        byte[] payload = new byte[(int) record.mLength - RECORD_HEADER_SIZE];
+        mOutput.seek(record.mPosition + RECORD_HEADER_SIZE);
+        mOutput.readFully(payload);
+        ByteArrayInputStream input = new ByteArrayInputStream(payload);
+        readId(input);
+        return mSerializer.read(input);
+    }
+
+    @Override
+    public synchronized boolean remove(@NonNull StandardSession session) {
+        String id = session.getId();
+        if (TextUtils.isEmpty(id)) {
+            throw new IllegalStateException("The session id can not be empty or null.");
+        }
+
+        try {
+            open();
+            Record previous = mIndex.remove(id);
+            if (previous == null) {
+                return false;
+            }
+            mLiveSize -= previous.mLength;
+
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            writeId(payload, id);
+            append(TYPE_DELETE, payload.toByteArray());
+            compactIfNeeded();
+            return true;
+        } catch (IOException e) {
+            Log.e(AndServer.TAG, "Session removal failed.", e);
+            return false;
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized List<String> getIds() {
+        try {
+            open();
+        } catch (IOException e) {
+            Log.e(AndServer.TAG, "The session log cannot be opened.", e);
+        }
+        return new ArrayList<>(mIndex.keySet());
+    }
+
+    /**
+     * Release the file, it is opened again when the store is used.
+     */
+    @Override
+    public synchronized void close() {
+        IOUtils.closeQuietly(mOutput);
+        mOutput = null;
+        mIndex.clear();
+    }
+
+    /**
+     * Open the log and replay the records, the sessions of the legacy store are moved into the log at the first time.
+     */
+    private void open() throws IOException {
+        if (mOutput != null) {
+            return;
+        }
+
+        File folder = mFile.getParentFile();
+        if (folder != null && !IOUtils.createFolder(folder)) {
+            throw new IOException("The folder of the session log cannot be created.");
+        }
+
+        mIndex.clear();
+        mLength = replay();
+        mLiveSize = 0;
+        for (Record record: mIndex.values()) {
+            mLiveSize += record.mLength;
+        }
+
+        mOutput = new RandomAccessFile(mFile, "rw");
+        if (mLength == 0) {
+            mOutput.setLength(0);
+            mOutput.write(MAGIC);
+            mOutput.write(VERSION);
+            mLength = HEADER_SIZE;
+        } else if (mOutput.length() != mLength) {
+            // Discard the record which has not been completely written.
+            mOutput.setLength(mLength);
+        }
+
+        if (mLegacy != null) {
+            migrate(mLegacy);
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Read the records and index the latest record of every session.
+     *
+     * @return the length of the valid records, or 0 if the log does not exist or it is not a session log.
+     */
+    private long replay() throws IOException {
+        if (mFile.length() < HEADER_SIZE) {
+            return 0;
+        }
+
+        long position = HEADER_SIZE;
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(mFile)));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!isMagic(magic) || input.read() != VERSION) {
+                Log.w(AndServer.TAG, "The session log is unknown, it is discarded.");
+                return 0;
+            }
+
+            CRC32 crc = new CRC32();
+            while (true) {
+                int type = input.read();
+                if (type == -1) {
+                    return position;
+                }
+                int length = input.readInt();
+                long checksum = input.readInt() & 0xFFFFFFFFL;
+                if ((type != TYPE_PUT && type != TYPE_DELETE) || length < 0 ||
+                    length > mFile.length() - position - RECORD_HEADER_SIZE) {
+                    return position;
+                }
+                byte[] payload = new byte[length];
+                input.readFully(payload);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if (crc.getValue() != checksum) {
+                    return position;
+                }
+
+                String id = readId(new ByteArrayInputStream(payload));
+                Record record = new Record(position, RECORD_HEADER_SIZE + length);
+                if (type == TYPE_PUT) {
+                    mIndex.put(id, record);
+                } else {
+                    mIndex.remove(id);
+                }
+                position += record.mLength;
+            }
+        } catch (EOFException e) {
+            // The last record is incomplete, it is discarded when the log is opened.
+            return position;
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    private void migrate(Store legacy) {
+        for (String id: legacy.getIds()) {
+            StandardSession session = null;
+            try {
+                if (!mIndex.containsKey(id)) {
+                    session = legacy.getSession(id);
+                }
+                if (session != null) {
+                    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+                    writeId(payload, id);
+                    mSerializer.write(session, payload);
+                    Record record = append(TYPE_PUT, payload.toByteArray());
+                    mIndex.put(id, record);
+                    mLiveSize += record.mLength;
+                }
+            } catch (Exception e) {
+                Log.w(AndServer.TAG, "The legacy session cannot be read, it is discarded.", e);
+            }
+
+            StandardSession stub = new StandardSession();
+            stub.setId(id);
+            legacy.remove(stub);
+        }
+    }
+
+    private Record append(int type, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(RECORD_HEADER_SIZE + payload.length);
+        buffer.write(type);
+        writeInt(buffer, payload.length);
+        writeInt(buffer, (int) crc.getValue());
+        buffer.write(payload);
+
+        Record record = new Record(mLength, buffer.size());
+        mOutput.seek(mLength);
+        mOutput.write(buffer.toByteArray());
+        mLength += record.mLength;
+        return record;
+    }
+
+    /**
+     * Rewrite the log with only the latest records when more than half of the log is stale.
+     */
+    private void compactIfNeeded() throws IOException {
+        long staleSize = mLength - HEADER_SIZE - mLiveSize;
+        if (staleSize < MIN_COMPACT_SIZE || staleSize < mLiveSize) {
+            return;
+        }
+
+        File temp = new File(mFile.getPath() + ".tmp");
+        RandomAccessFile output = new RandomAccessFile(temp, "rw");
+        Map<String, Record> index = new HashMap<>();
+        long length;
+        try {
+            output.setLength(0);
+            output.write(MAGIC);
+            output.write(VERSION);
+            length = HEADER_SIZE;
+
+            byte[] buffer = new byte[8 * 1024];
+            for (Map.Entry<String, Record> entry: mIndex.entrySet()) {
+                Record record = entry.getValue();
+                byte[] data = record.mLength <= buffer.length ? buffer : new byte[(int) record.mLength];
+                mOutput.seek(record.mPosition);
+                mOutput.readFully(data, 0, (int) record.mLength);
+                output.write(data, 0, (int) record.mLength);
+                index.put(entry.getKey(), new Record(length, record.mLength));
+                length += record.mLength;
+            }
+            output.getFD().sync();
+        } finally {
+            IOUtils.closeQuietly(output);
+        }
+
+        IOUtils.closeQuietly(mOutput);
+        if (!temp.renameTo(mFile)) {
+            IOUtils.delFileOrFolder(temp);
+            mOutput = null;
+            throw new IOException("The session log cannot be replaced.");
+        }
+        mOutput = new RandomAccessFile(mFile, "rw");
+        mIndex.clear();
+        mIndex.putAll(index);
+        mLength = length;
+        mLiveSize = length - HEADER_SIZE;
+    }
+
+    private static boolean isMagic(byte[] magic) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeInt(ByteArrayOutputStream output, int value) {
+        output.write(value >>> 24);
+        output.write(value >>> 16);
+        output.write(value >>> 8);
+        output.write(value);
+    }
+
+    private static void writeId(ByteArrayOutputStream output, String id) {
+        byte[] bytes = id.getBytes(UTF_8);
+        output.write(bytes.length >>> 8);
+        output.write(bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private static String readId(ByteArrayInputStream input) throws IOException {
+        int high = input.read();
+        int low = input.read();
+        if (high == -1 || low == -1) {
+            throw new EOFException();
+        }
+        int length = (high << 8) | low;
+        byte[] bytes = new byte[length];
+        if (input.read(bytes, 0, length) != length) {
+            throw new EOFException();
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    private static class Record {
+
+        private final long mPosition;
+        private final long mLength;
+
+        private Record(long position, long length) {
+            this.mPosition = position;
+            this.mLength = length;
+        }
+    }
+}
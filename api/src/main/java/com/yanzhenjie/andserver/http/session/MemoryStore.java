@@ -0,0 +1,484 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http.session;
+
+import android.os.Build;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.yanzhenjie.andserver.AndServer;
+import com.yanzhenjie.andserver.util.Assert;
+import com.yanzhenjie.andserver.util.IOUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p> Keep the sessions in the memory, the changes are written to the persistent store in batches on a background
+ * thread. </p>
+ *
+ * The sessions which are not in the memory, e.g. after the server restarts or the session has been evicted, are
+ * loaded from the persistent store when they are requested.
+ *
+ * The expired sessions are removed from the memory and the persistent store periodically, they are indexed by the
+ * time they expire, so only the sessions which may have expired are checked.
+ *
+ * The sessions in the memory are kept in the order of the access, the least recently accessed ones are dropped when
+ * the count exceeds the max size.
+ */
+class MemoryStore implements Store, Closeable {
+
+    /**
+     * The max time (in milliseconds) the access time in the persistent store can be older than the real one.
+     */
+    private static final long ACCESS_WRITE_INTERVAL = 60 * 1000;
+
+    private final Store mStore;
+    private final int mMaxSize;
+    private final long mWriteDelay;
+
+    private final LinkedHashMap<String, StandardSession> mSessions = new LinkedHashMap<>();
+    private final ConcurrentMap<String, Long> mWrittenAccess = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, StandardSession> mDirty = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Boolean> mRemoved = new ConcurrentHashMap<>();
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+
+    private final PriorityQueue<Expiration> mExpirations = new PriorityQueue<>();
+    private final ConcurrentMap<String, Boolean> mIndexed = new ConcurrentHashMap<>();
+    private boolean isStoreIndexed;
+    private ScheduledFuture<?> mSweeper;
+
+    /**
+     * @param store the persistent store.
+     * @param maxSize the max count of the sessions in the memory.
+     * @param writeDelay the delay (in milliseconds) before the changes are written to the persistent store.
+     * @param sweepInterval the interval (in milliseconds) between the removals of the expired sessions.
+     */
+    MemoryStore(@NonNull Store store, int maxSize, long writeDelay, long sweepInterval) {
+        Assert.notNull(store, "The store cannot be null.");
+        Assert.isTrue(maxSize > 0, "The maxSize must be greater than 0.");
+
+        this.mStore = store;
+        this.mMaxSize = maxSize;
+        this.mWriteDelay = writeDelay;
+        setSweepInterval(sweepInterval);
+    }
+
+    /**
+     * Set the interval between the removals of the expired sessions.
+     *
+     * @param interval the interval in milliseconds.
+     */
+    public synchronized void setSweepInterval(long interval) {
+        Assert.isTrue(interval > 0, "The interval must be greater than 0.");
+
+        if (mSweeper != null) {
+            Scheduler.cancel(mSweeper);
+        }
+        mSweeper = Scheduler.INSTANCE.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sweep();
+                } catch (Throwable e) {
+                    Log.e(AndServer.TAG, "Session expiration failed.", e);
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean replace(@NonNull StandardSession session) {
+        Assert.notNull(session, "The session can not be null.");
+
+        String id = session.getId();
+        if (TextUtils.isEmpty(id)) {
+            throw new IllegalStateException("The session id can not be empty or null.");
+        }
+
+        synchronized (mSessions) {
+            mSessions.remove(id);
+            mSessions.put(id, session);
+            trim();
+        }
+        mRemoved.remove(id);
+        mDirty.put(id, session);
+        index(session);
+        schedule();
+        return true;
+    }
+
+    /**
+     * Record the access of the session. The session becomes the most recently accessed one, the access time is written
+     * to the persistent store when it is too old there, or when the session is dropped from the memory.
+     */
+    public void touch(@NonNull StandardSession session) {
+        String id = session.getId();
+        synchronized (mSessions) {
+            if (mSessions.remove(id) == null) {
+                // It has been removed or dropped.
+                return;
+            }
+            mSessions.put(id, session);
+        }
+
+        Long written = mWrittenAccess.get(id);
+        if (written == null || session.lastAccessedTime() - written >= accessWriteInterval(session)) {
+            mDirty.put(id, session);
+            schedule();
+        }
+    }
+
+    @Nullable
+    @Override
+    public StandardSession getSession(@NonNull String id) throws IOException, ClassNotFoundException {
+        if (TextUtils.isEmpty(id)) {
+            throw new IllegalArgumentException("The id can not be empty or null.");
+        }
+
+        StandardSession session = getMemorySession(id);
+        if (session == null) {
+            session = mDirty.get(id);
+        }
+        if (session == null) {
+            if (mRemoved.containsKey(id)) {
+                return null;
+            }
+            session = mStore.getSession(id);
+            if (session == null) {
+                return null;
+            }
+            synchronized (mSessions) {
+                mSessions.put(id, session);
+                mWrittenAccess.put(id, session.lastAccessedTime());
+                trim();
+            }
+            index(session);
+        }
+
+        if (!session.isValid()) {
+            remove(session);
+            return null;
+        }
+        return session;
+    }
+
+    @Override
+    public boolean remove(@NonNull StandardSession session) {
+        String id = session.getId();
+        if (TextUtils.isEmpty(id)) {
+            throw new IllegalStateException("The session id can not be empty or null.");
+        }
+
+        synchronized (mSessions) {
+            mSessions.remove(id);
+            mWrittenAccess.remove(id);
+        }
+        mDirty.remove(id);
+        mIndexed.remove(id);
+        mRemoved.put(id, Boolean.TRUE);
+        schedule();
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public List<String> getIds() {
+        Set<String> ids = new HashSet<>(mStore.getIds());
+        synchronized (mSessions) {
+            ids.addAll(mSessions.keySet());
+        }
+        ids.addAll(mDirty.keySet());
+        ids.removeAll(mRemoved.keySet());
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Write the changes to the persistent store.
+     */
+    public synchronized void flush() {
+        for (Map.Entry<String, StandardSession> entry: mDirty.entrySet()) {
+            StandardSession session = entry.getValue();
+            if (!mDirty.remove(entry.getKey(), session)) {
+                // It has been changed or removed again.
+                continue;
+            }
+            try {
+                mStore.replace(session);
+            } catch (IOException e) {
+                Log.e(AndServer.TAG, "Session persistence failed.", e);
+                continue;
+            }
+            synchronized (mSessions) {
+                if (mSessions.get(session.getId()) == session) {
+                    mWrittenAccess.put(session.getId(), session.lastAccessedTime());
+                }
+            }
+        }
+        for (String id: mRemoved.keySet()) {
+            if (mRemoved.remove(id) != null) {
+                // The id of the session may have been changed, so only the id is kept.
+                StandardSession session = new StandardSession();
+                session.setId(id);
+                mStore.remove(session);
+            }
+        }
+    }
+
+    /**
+     * Stop removing the expired sessions and write the pending changes, the sessions stay in the memory.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (mSweeper != null) {
+                Scheduler.cancel(mSweeper);
+                mSweeper = null;
+            }
+        }
+        flush();
+        if (mStore instanceof Closeable) {
+            IOUtils.closeQuietly((Closeable) mStore);
+        }
+    }
+
+    /**
+     * Remove the sessions which have expired, the sessions in the persistent store are indexed at the first time.
+     */
+    void sweep() {
+        if (!isStoreIndexed) {
+            isStoreIndexed = true;
+            for (String id: mStore.getIds()) {
+                if (mIndexed.putIfAbsent(id, Boolean.TRUE) == null) {
+                    // The expiration is unknown until the session is read.
+                    addExpiration(new Expiration(id, 0));
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        while (true) {
+            Expiration expiration;
+            synchronized (mExpirations) {
+                expiration = mExpirations.peek();
+                if (expiration == null || expiration.mTime > now) {
+                    break;
+                }
+                mExpirations.poll();
+            }
+
+            String id = expiration.mId;
+            StandardSession session = findSession(id);
+            if (session == null) {
+                mIndexed.remove(id);
+                continue;
+            }
+
+            long time = expirationTime(session);
+            if (time == Long.MAX_VALUE) {
+                mIndexed.remove(id);
+            } else if (time > now) {
+                addExpiration(new Expiration(id, time));
+            } else {
+                remove(session);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Find the session without putting it in the memory.
+     */
+    @Nullable
+    private StandardSession findSession(String id) {
+        StandardSession session = getMemorySession(id);
+        if (session == null) {
+            session = mDirty.get(id);
+        }
+        if (session != null || mRemoved.containsKey(id)) {
+            return session;
+        }
+
+        try {
+            session = mStore.getSession(id);
+        } catch (Exception e) {
+            Log.w(AndServer.TAG, "The session cannot be read, it is removed.", e);
+            session = new StandardSession();
+            session.setId(id);
+            return session;
+        }
+
+        // The session in the memory is newer than the stored one.
+        StandardSession current = getMemorySession(id);
+        return current == null ? session : current;
+    }
+
+    @Nullable
+    private StandardSession getMemorySession(String id) {
+        synchronized (mSessions) {
+            return mSessions.get(id);
+        }
+    }
+
+    private void index(StandardSession session) {
+        String id = session.getId();
+        if (mIndexed.containsKey(id)) {
+            return;
+        }
+        long time = expirationTime(session);
+        if (time != Long.MAX_VALUE && mIndexed.putIfAbsent(id, Boolean.TRUE) == null) {
+            addExpiration(new Expiration(id, time));
+        }
+    }
+
+    private void addExpiration(Expiration expiration) {
+        synchronized (mExpirations) {
+            mExpirations.add(expiration);
+        }
+    }
+
+    /**
+     * Get the time when the session expires.
+     *
+     * @return the time in milliseconds, or {@link Long#MAX_VALUE} if the session does not expire.
+     */
+    private static long expirationTime(StandardSession session) {
+        if (!session.isValid()) {
+            return Long.MIN_VALUE;
+        }
+        int interval = session.getMaxInactiveInterval();
+        if (interval <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return lastAccessedTime(session) + interval * 1000L;
+    }
+
+    /**
+     * Drop the sessions which have not been accessed for the longest time until the count is not greater than the max
+     * size, it is called with the lock of the sessions. The changes of the dropped sessions are still written,
+     * including the access time which has not been written.
+     */
+    private void trim() {
+        Iterator<StandardSession> iterator = mSessions.values().iterator();
+        while (mSessions.size() > mMaxSize && iterator.hasNext()) {
+            StandardSession eldest = iterator.next();
+            iterator.remove();
+            String id = eldest.getId();
+            Long written = mWrittenAccess.remove(id);
+            if (!eldest.isValid()) {
+                remove(eldest);
+            } else if (written == null || eldest.lastAccessedTime() > written) {
+                mDirty.putIfAbsent(id, eldest);
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * Get the max time the written access time can be behind, it is shorter for the sessions which expire soon.
+     */
+    private static long accessWriteInterval(StandardSession session) {
+        int interval = session.getMaxInactiveInterval();
+        if (interval <= 0) {
+            return ACCESS_WRITE_INTERVAL;
+        }
+        return Math.min(ACCESS_WRITE_INTERVAL, interval * 1000L / 4);
+    }
+
+    private static long lastAccessedTime(StandardSession session) {
+        try {
+            return session.getLastAccessedTime();
+        } catch (IllegalStateException e) {
+            // It has just expired.
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private void schedule() {
+        if (isScheduled.compareAndSet(false, true)) {
+            Scheduler.INSTANCE.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    isScheduled.set(false);
+                    flush();
+                }
+            }, mWriteDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static class Expiration implements Comparable<Expiration> {
+
+        private final String mId;
+        private final long mTime;
+
+        private Expiration(String id, long time) {
+            this.mId = id;
+            this.mTime = time;
+        }
+
+        @Override
+        public int compareTo(@NonNull Expiration o) {
+            return mTime < o.mTime ? -1 : (mTime == o.mTime ? 0 : 1);
+        }
+    }
+
+    private static final class Scheduler {
+
+        private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable r) {
+                    Thread thread = new Thread(r, "AndServer-Session");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+        static {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                INSTANCE.setRemoveOnCancelPolicy(true);
+            }
+        }
+
+        /**
+         * Cancel the task and take it out of the queue, the sweepers of the stopped servers are not kept.
+         */
+        private static void cancel(ScheduledFuture<?> future) {
+            future.cancel(false);
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+                INSTANCE.remove((Runnable) future);
+            }
+        }
+    }
+}
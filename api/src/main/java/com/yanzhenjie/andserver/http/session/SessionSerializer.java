@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http.session;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * <p> Convert the session to the bytes which are kept in the persistent store, and back. </p>
+ *
+ * @see BinarySessionSerializer
+ * @see JavaSessionSerializer
+ */
+public interface SessionSerializer {
+
+    /**
+     * Write the session to the stream.
+     *
+     * @param session the session.
+     * @param output the stream.
+     *
+     * @throws IOException if an output error occurs while processing this request.
+     */
+    void write(@NonNull StandardSession session, @NonNull OutputStream output) throws IOException;
+
+    /**
+     * Read the session from the stream.
+     *
+     * @param input the stream.
+     *
+     * @return the session.
+     *
+     * @throws IOException if the input error occurs while processing this request.
+     */
+    @NonNull
+    StandardSession read(@NonNull InputStream input) throws IOException, ClassNotFoundException;
+}
@@ -28,6 +28,7 @@ import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -180,6 +181,27 @@ public class StandardSession implements Session {
         return isValid;
     }
 
+    /**
+     * Get the attributes without validating the session, e.g. for {@link SessionSerializer}.
+     */
+    Map<String, Object> attributes() {
+        return mAttributes;
+    }
+
+    /**
+     * Get the last accessed time without validating the session, e.g. for {@link SessionSerializer}.
+     */
+    long lastAccessedTime() {
+        return lastAccessedTime;
+    }
+
+    /**
+     * Whether the session is new without validating the session, e.g. for {@link SessionSerializer}.
+     */
+    boolean isNewSession() {
+        return isNew;
+    }
+
     /**
      * Write attribute values to the stream.
      *
@@ -194,15 +216,20 @@ public class StandardSession implements Session {
         stream.writeInt(maxInactiveInterval);
         stream.writeBoolean(isNew);
         stream.writeBoolean(isValid);
-        stream.writeInt(mAttributes.size());
+        // The count must match the attributes which are written.
+        Map<String, Object> attributes = new HashMap<>();
         String keys[] = mAttributes.keySet().toArray(EMPTY_ARRAY);
         for (String key: keys) {
             Object value = mAttributes.get(key);
-            if (value != null && value instanceof Serializable) {
-                stream.writeObject(key);
-                stream.writeObject(value);
+            if (value instanceof Serializable) {
+                attributes.put(key, value);
             }
         }
+        stream.writeInt(attributes.size());
+        for (Map.Entry<String, Object> entry: attributes.entrySet()) {
+            stream.writeObject(entry.getKey());
+            stream.writeObject(entry.getValue());
+        }
     }
 
     /**
@@ -20,22 +20,73 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Created by Zhenjie Yan on 2018/7/26.
  */
-public class StandardSessionManager implements SessionManager {
+public class StandardSessionManager implements SessionManager, Closeable {
+
+    private static final int MAX_SESSIONS = 1024;
+    private static final long WRITE_DELAY = 5 * 1000;
+    private static final long SWEEP_INTERVAL = 60 * 1000;
+
+    /**
+     * The servers of the same app share the log, the records are appended by one store.
+     */
+    private static final Map<String, LogStore> LOG_STORES = new HashMap<>();
 
     private IdGenerator mIdGenerator;
-    private Store mStore;
+    private LogStore mLogStore;
+    private MemoryStore mStore;
+    private int mMaxInactiveInterval = -1;
 
     public StandardSessionManager(Context context) {
-        this.mIdGenerator = new StandardIdGenerator();
+        this.mIdGenerator = new StripedIdGenerator();
 
+        // The sessions of the earlier versions are kept in a file per session, they are moved into the log.
         File sessionDir = new File(context.getCacheDir(), "_andserver_session_");
-        this.mStore = new StandardStore(sessionDir);
+        File sessionLog = new File(context.getCacheDir(), "_andserver_session_.log");
+        synchronized (LOG_STORES) {
+            LogStore logStore = LOG_STORES.get(sessionLog.getAbsolutePath());
+            if (logStore == null) {
+                logStore = new LogStore(sessionLog, new StandardStore(sessionDir));
+                LOG_STORES.put(sessionLog.getAbsolutePath(), logStore);
+            }
+            this.mLogStore = logStore;
+        }
+        this.mStore = new MemoryStore(mLogStore, MAX_SESSIONS, WRITE_DELAY, SWEEP_INTERVAL);
+    }
+
+    /**
+     * Set the max inactive interval of the new sessions.
+     *
+     * @param interval the interval in seconds, 0 or less means the sessions do not expire.
+     */
+    public void setMaxInactiveInterval(int interval) {
+        this.mMaxInactiveInterval = interval;
+    }
+
+    /**
+     * Set the interval between the removals of the expired sessions.
+     *
+     * @param interval the interval in milliseconds, 0 means the default interval.
+     */
+    public void setSweepInterval(long interval) {
+        mStore.setSweepInterval(interval > 0 ? interval : SWEEP_INTERVAL);
+    }
+
+    /**
+     * Set the format of the sessions on the disk.
+     *
+     * @param serializer {@link SessionSerializer}.
+     */
+    public void setSerializer(@NonNull SessionSerializer serializer) {
+        mLogStore.setSerializer(serializer);
     }
 
     @Override
@@ -51,7 +102,13 @@ public class StandardSessionManager implements SessionManager {
     public void changeSessionId(@NonNull Session session) {
         if (session instanceof StandardSession) {
             StandardSession standardSession = (StandardSession) session;
-            standardSession.setId(mIdGenerator.generateId());
+            if (standardSession.isNew()) {
+                standardSession.setId(mIdGenerator.generateId());
+            } else {
+                mStore.remove(standardSession);
+                standardSession.setId(mIdGenerator.generateId());
+                mStore.replace(standardSession);
+            }
         }
     }
 
@@ -69,6 +126,8 @@ public class StandardSessionManager implements SessionManager {
         StandardSession session = mStore.getSession(id);
         if (session != null) {
             session.setLastAccessedTime(System.currentTimeMillis());
+            // The access time is not written for every request.
+            mStore.touch(session);
         }
         return session;
     }
@@ -80,11 +139,20 @@ public class StandardSessionManager implements SessionManager {
         }
     }
 
+    /**
+     * Write the pending changes of the sessions to the disk.
+     */
+    @Override
+    public void close() {
+        mStore.close();
+    }
+
     private StandardSession newSession() {
         StandardSession session = new StandardSession();
         long currentTime = System.currentTimeMillis();
         session.setCreatedTime(currentTime);
         session.setLastAccessedTime(currentTime);
+        session.setMaxInactiveInterval(mMaxInactiveInterval);
         session.setNew(true);
         session.setValid(true);
         return session;
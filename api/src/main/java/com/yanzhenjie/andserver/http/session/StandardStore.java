@@ -23,12 +23,16 @@ import androidx.annotation.Nullable;
 import com.yanzhenjie.andserver.util.Assert;
 import com.yanzhenjie.andserver.util.IOUtils;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by Zhenjie Yan on 2018/7/26.
@@ -36,9 +40,28 @@ import java.io.ObjectOutputStream;
 public class StandardStore implements Store {
 
     private File mDirectory;
+    private volatile SessionSerializer mSerializer;
 
     public StandardStore(File directory) {
+        this(directory, new BinarySessionSerializer());
+    }
+
+    public StandardStore(File directory, @NonNull SessionSerializer serializer) {
+        Assert.notNull(serializer, "The serializer cannot be null.");
+
         this.mDirectory = directory;
+        this.mSerializer = serializer;
+    }
+
+    /**
+     * Set the format of the stored sessions.
+     *
+     * @param serializer {@link SessionSerializer}.
+     */
+    public void setSerializer(@NonNull SessionSerializer serializer) {
+        Assert.notNull(serializer, "The serializer cannot be null.");
+
+        this.mSerializer = serializer;
     }
 
     @Override
@@ -50,7 +73,7 @@ public class StandardStore implements Store {
             throw new IllegalStateException("The session id can not be empty or null.");
         }
 
-        ObjectOutputStream writer = null;
+        OutputStream writer = null;
         try {
             if (!IOUtils.createFolder(mDirectory)) {
                 return false;
@@ -61,8 +84,8 @@ public class StandardStore implements Store {
                 return false;
             }
 
-            writer = new ObjectOutputStream(new FileOutputStream(file));
-            session.writeObject(writer);
+            writer = new BufferedOutputStream(new FileOutputStream(file));
+            mSerializer.write(session, writer);
             return true;
         } catch (IOException e) {
             IOUtils.delFileOrFolder(new File(mDirectory, id));
@@ -79,17 +102,15 @@ public class StandardStore implements Store {
             throw new IllegalArgumentException("The id can not be empty or null.");
         }
 
-        ObjectInputStream reader = null;
+        InputStream reader = null;
         try {
             File file = new File(mDirectory, id);
             if (!file.exists() || file.isDirectory()) {
                 return null;
             }
 
-            reader = new ObjectInputStream(new FileInputStream(file));
-            StandardSession session = new StandardSession();
-            session.readObject(reader);
-            return session;
+            reader = new BufferedInputStream(new FileInputStream(file));
+            return mSerializer.read(reader);
         } catch (IOException e) {
             IOUtils.delFileOrFolder(new File(mDirectory, id));
             throw e;
@@ -106,4 +127,19 @@ public class StandardStore implements Store {
         }
         return IOUtils.delFileOrFolder(new File(mDirectory, session.getId()));
     }
+
+    @NonNull
+    @Override
+    public List<String> getIds() {
+        List<String> ids = new ArrayList<>();
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file: files) {
+                if (file.isFile()) {
+                    ids.add(file.getName());
+                }
+            }
+        }
+        return ids;
+    }
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Created by Zhenjie Yan on 2018/7/26.
@@ -56,4 +57,12 @@ interface Store {
      * @return true if successful removal, otherwise is false.
      */
     boolean remove(@NonNull StandardSession session);
+
+    /**
+     * Get the IDs of the sessions in the persistent store.
+     *
+     * @return the session IDs.
+     */
+    @NonNull
+    List<String> getIds();
 }
\ No newline at end of file
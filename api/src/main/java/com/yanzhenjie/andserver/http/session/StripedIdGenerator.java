@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.http.session;
+
+import androidx.annotation.NonNull;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * <p> Generate the identifiers in the format of {@link StandardIdGenerator} for many threads at once. </p>
+ *
+ * The threads are spread over several random number generators, every generator is created when it is used first
+ * and fills a buffer with the random bytes of many identifiers at once.
+ */
+public class StripedIdGenerator implements IdGenerator {
+
+    private static final int ID_LENGTH = 30;
+    private static final int BATCH_COUNT = 32;
+    private static final int MAX_STRIPES = 16;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final Stripe[] mStripes;
+    private final int mMask;
+
+    public StripedIdGenerator() {
+        int count = 1;
+        int target = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors() * 2);
+        while (count < target) {
+            count <<= 1;
+        }
+        this.mStripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            mStripes[i] = new Stripe();
+        }
+        this.mMask = count - 1;
+    }
+
+    @NonNull
+    @Override
+    public String generateId() {
+        char[] id = new char[ID_LENGTH * 2];
+        Stripe stripe = mStripes[(int) Thread.currentThread().getId() & mMask];
+        synchronized (stripe) {
+            if (stripe.mPosition == stripe.mBuffer.length) {
+                if (stripe.mRandom == null) {
+                    stripe.mRandom = createSecureRandom();
+                }
+                stripe.mRandom.nextBytes(stripe.mBuffer);
+                stripe.mPosition = 0;
+            }
+            byte[] buffer = stripe.mBuffer;
+            int position = stripe.mPosition;
+            for (int i = 0; i < ID_LENGTH; i++) {
+                int b = buffer[position + i];
+                id[i * 2] = HEX[(b >> 4) & 0x0F];
+                id[i * 2 + 1] = HEX[b & 0x0F];
+            }
+            stripe.mPosition = position + ID_LENGTH;
+        }
+        return new String(id);
+    }
+
+    private static class Stripe {
+
+        private SecureRandom mRandom;
+        private final byte[] mBuffer;
+        private int mPosition;
+
+        private Stripe() {
+            this.mBuffer = new byte[ID_LENGTH * BATCH_COUNT];
+            this.mPosition = mBuffer.length;
+        }
+    }
+
+    /**
+     * Create a new random number generator instance we should use for generating session identifiers.
+     */
+    private static SecureRandom createSecureRandom() {
+        SecureRandom result;
+        try {
+            result = SecureRandom.getInstance("SHA1PRNG");
+        } catch (NoSuchAlgorithmException e) {
+            result = new SecureRandom();
+        }
+
+        // Force seeding to take place.
+        result.nextInt();
+        return result;
+    }
+}
@@ -20,8 +20,11 @@ import androidx.annotation.NonNull;
 import com.yanzhenjie.andserver.framework.ExceptionResolver;
 import com.yanzhenjie.andserver.framework.HandlerInterceptor;
 import com.yanzhenjie.andserver.framework.MessageConverter;
+import com.yanzhenjie.andserver.framework.cache.ResponseCacheStore;
 import com.yanzhenjie.andserver.framework.config.Multipart;
 import com.yanzhenjie.andserver.framework.handler.HandlerAdapter;
+import com.yanzhenjie.andserver.framework.websocket.WebSocketEndpoint;
+import com.yanzhenjie.andserver.http.session.SessionSerializer;
 
 /**
  * Created by Zhenjie Yan on 2018/9/10.
@@ -42,6 +45,14 @@ public interface Register {
      */
     void addInterceptor(@NonNull HandlerInterceptor interceptor);
 
+    /**
+     * Increase the WebSocket endpoint.
+     *
+     * @param path the path of the endpoint.
+     * @param endpoint {@link WebSocketEndpoint}.
+     */
+    void addWebSocket(@NonNull String path, @NonNull WebSocketEndpoint endpoint);
+
     /**
      * Set up a message converter to convert messages that are not recognized by AndServer.
      *
@@ -63,4 +74,39 @@ public interface Register {
      * @param multipart {@link Multipart}.
      */
     void setMultipart(Multipart multipart);
-}
\ No newline at end of file
+
+    /**
+     * Set the timeout of the asynchronous result, e.g. {@link com.yanzhenjie.andserver.http.DeferredResult}.
+     *
+     * @param timeout the timeout in milliseconds, 0 means the default timeout.
+     */
+    void setAsyncTimeout(long timeout);
+
+    /**
+     * Set the max inactive interval of the new sessions.
+     *
+     * @param timeout the interval in milliseconds, 0 means the sessions do not expire.
+     */
+    void setSessionTimeout(long timeout);
+
+    /**
+     * Set the interval between the removals of the expired sessions.
+     *
+     * @param interval the interval in milliseconds, 0 means the default interval.
+     */
+    void setSessionSweepInterval(long interval);
+
+    /**
+     * Set the format of the stored sessions.
+     *
+     * @param serializer {@link SessionSerializer}, null means the default format.
+     */
+    void setSessionSerializer(SessionSerializer serializer);
+
+    /**
+     * Set the store of the cached responses, e.g. {@link com.yanzhenjie.andserver.annotation.ResponseCache}.
+     *
+     * @param store {@link ResponseCacheStore}, null means the default store.
+     */
+    void setResponseCache(ResponseCacheStore store);
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import com.yanzhenjie.andserver.http.AsyncContext;
+import com.yanzhenjie.andserver.http.UpgradeHandler;
+import com.yanzhenjie.andserver.util.IOUtils;
+
+import org.apache.httpcore.ConnectionReuseStrategy;
+import org.apache.httpcore.HttpEntity;
+import org.apache.httpcore.HttpEntityEnclosingRequest;
+import org.apache.httpcore.HttpException;
+import org.apache.httpcore.HttpRequest;
+import org.apache.httpcore.HttpResponse;
+import org.apache.httpcore.HttpResponseFactory;
+import org.apache.httpcore.HttpServerConnection;
+import org.apache.httpcore.HttpStatus;
+import org.apache.httpcore.HttpVersion;
+import org.apache.httpcore.impl.DefaultConnectionReuseStrategy;
+import org.apache.httpcore.impl.DefaultHttpResponseFactory;
+import org.apache.httpcore.protocol.HTTP;
+import org.apache.httpcore.protocol.HttpContext;
+import org.apache.httpcore.protocol.HttpCoreContext;
+import org.apache.httpcore.protocol.HttpProcessor;
+import org.apache.httpcore.protocol.HttpRequestHandlerMapper;
+import org.apache.httpcore.protocol.HttpService;
+import org.apache.httpcore.util.EntityUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p> A {@link HttpService} whose response can be suspended by the handler through {@link AsyncContext}, the worker
+ * thread is released while the response is suspended. </p>
+ */
+class AsyncHttpService extends HttpService {
+
+    private final HttpProcessor mProcessor;
+    private final ConnectionReuseStrategy mConnStrategy;
+    private final HttpResponseFactory mResponseFactory;
+
+    AsyncHttpService(HttpProcessor processor, HttpRequestHandlerMapper mapper) {
+        super(processor, DefaultConnectionReuseStrategy.INSTANCE, DefaultHttpResponseFactory.INSTANCE, mapper);
+        this.mProcessor = processor;
+        this.mConnStrategy = DefaultConnectionReuseStrategy.INSTANCE;
+        this.mResponseFactory = DefaultHttpResponseFactory.INSTANCE;
+    }
+
+    /**
+     * Handle the next request of the connection.
+     *
+     * @param conn the connection.
+     * @param context the context of the connection.
+     * @param callback it is invoked when a suspended response is completed.
+     *
+     * @return the exchange if the response is suspended, or null if the response has been sent.
+     */
+    Exchange handleRequest(HttpServerConnection conn, HttpContext context, Callback callback)
+        throws IOException, HttpException {
+        context.setAttribute(HttpCoreContext.HTTP_CONNECTION, conn);
+
+        HttpRequest request = null;
+        HttpResponse response = null;
+        Exchange exchange = null;
+        try {
+            request = conn.receiveRequestHeader();
+            if (request instanceof HttpEntityEnclosingRequest) {
+                if (((HttpEntityEnclosingRequest) request).expectContinue()) {
+                    response = mResponseFactory.newHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_CONTINUE,
+                        context);
+                    conn.sendResponseHeader(response);
+                    conn.flush();
+                    response = null;
+                }
+                conn.receiveRequestEntity((HttpEntityEnclosingRequest) request);
+            }
+            context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+
+            response = mResponseFactory.newHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, context);
+            mProcessor.process(request, context);
+
+            exchange = new Exchange(conn, context, request, response, callback);
+            context.setAttribute(com.yanzhenjie.andserver.http.HttpContext.ASYNC_CONTEXT, exchange);
+            boolean isServed = false;
+            try {
+                doService(request, response, context);
+                isServed = true;
+            } finally {
+                context.removeAttribute(com.yanzhenjie.andserver.http.HttpContext.ASYNC_CONTEXT);
+                if (!isServed) {
+                    release(response);
+                }
+            }
+            if (exchange.detach()) {
+                return exchange;
+            }
+        } catch (HttpException e) {
+            response = mResponseFactory.newHttpResponse(HttpVersion.HTTP_1_0, HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                context);
+            handleException(e, response);
+            exchange = new Exchange(conn, context, request, response, callback);
+        }
+
+        exchange.finish();
+        return null;
+    }
+
+    /**
+     * Close the body of the response, whether it has been sent or not.
+     */
+    private static void release(HttpResponse response) {
+        HttpEntity entity = response.getEntity();
+        if (entity instanceof Closeable) {
+            IOUtils.closeQuietly((Closeable) entity);
+        }
+    }
+
+    /**
+     * Take the handler of the protocol which the connection has switched to.
+     *
+     * @param context the context of the connection.
+     *
+     * @return the handler, or null if the connection goes on with http.
+     */
+    static UpgradeHandler takeUpgrade(HttpContext context) {
+        Object handler = context.removeAttribute(com.yanzhenjie.andserver.http.HttpContext.UPGRADE_HANDLER);
+        return handler instanceof UpgradeHandler ? (UpgradeHandler) handler : null;
+    }
+
+    interface Callback {
+
+        /**
+         * The suspended response has been completed, {@link Exchange#finish()} should be called in a worker thread.
+         */
+        void onCompleted(Exchange exchange);
+    }
+
+    final class Exchange implements AsyncContext {
+
+        private static final int RUNNING = 0;
+        private static final int SUSPENDED = 1;
+        private static final int DETACHED = 2;
+        private static final int COMPLETED = 3;
+
+        private final HttpServerConnection mConn;
+        private final HttpContext mContext;
+        private final HttpRequest mRequest;
+        private final HttpResponse mResponse;
+        private final Callback mCallback;
+        private final AtomicInteger mState = new AtomicInteger(RUNNING);
+
+        private Exchange(HttpServerConnection conn, HttpContext context, HttpRequest request, HttpResponse response,
+                         Callback callback) {
+            this.mConn = conn;
+            this.mContext = context;
+            this.mRequest = request;
+            this.mResponse = response;
+            this.mCallback = callback;
+        }
+
+        @Override
+        public void suspend() {
+            mState.compareAndSet(RUNNING, SUSPENDED);
+        }
+
+        @Override
+        public void complete() {
+            while (true) {
+                int state = mState.get();
+                if (state == COMPLETED) {
+                    return;
+                }
+                if (mState.compareAndSet(state, COMPLETED)) {
+                    if (state == DETACHED) {
+                        mCallback.onCompleted(this);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * The handler has returned, keep the response if it is still suspended.
+         */
+        private boolean detach() {
+            return mState.compareAndSet(SUSPENDED, DETACHED);
+        }
+
+        /**
+         * Send the response.
+         */
+        void finish() throws IOException, HttpException {
+            try {
+                send();
+            } finally {
+                release(mResponse);
+            }
+        }
+
+        private void send() throws IOException, HttpException {
+            if (mRequest instanceof HttpEntityEnclosingRequest) {
+                EntityUtils.consume(((HttpEntityEnclosingRequest) mRequest).getEntity());
+            }
+
+            mContext.setAttribute(HttpCoreContext.HTTP_RESPONSE, mResponse);
+            mProcessor.process(mResponse, mContext);
+
+            boolean isUpgrade = isUpgrade();
+            if (isUpgrade) {
+                // A 1xx response has no body, and the connection is not kept for http.
+                mResponse.removeHeaders(HTTP.CONTENT_LEN);
+                mResponse.setHeader(HTTP.CONN_DIRECTIVE, "Upgrade");
+            } else {
+                mContext.removeAttribute(com.yanzhenjie.andserver.http.HttpContext.UPGRADE_HANDLER);
+            }
+
+            mConn.sendResponseHeader(mResponse);
+            if (canResponseHaveBody()) {
+                mConn.sendResponseEntity(mResponse);
+            }
+            mConn.flush();
+            if (!isUpgrade && !mConnStrategy.keepAlive(mResponse, mContext)) {
+                mConn.close();
+            }
+        }
+
+        private boolean isUpgrade() {
+            Object handler = mContext.getAttribute(com.yanzhenjie.andserver.http.HttpContext.UPGRADE_HANDLER);
+            return handler instanceof UpgradeHandler
+                && mResponse.getStatusLine().getStatusCode() == HttpStatus.SC_SWITCHING_PROTOCOLS;
+        }
+
+        private boolean canResponseHaveBody() {
+            if (mRequest != null && "HEAD".equalsIgnoreCase(mRequest.getRequestLine().getMethod())) {
+                return false;
+            }
+            int status = mResponse.getStatusLine().getStatusCode();
+            return status >= HttpStatus.SC_OK
+                && status != HttpStatus.SC_NO_CONTENT
+                && status != HttpStatus.SC_NOT_MODIFIED
+                && status != HttpStatus.SC_RESET_CONTENT;
+        }
+    }
+}
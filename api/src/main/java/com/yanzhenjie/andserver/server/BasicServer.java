@@ -15,34 +15,56 @@
  */
 package com.yanzhenjie.andserver.server;
 
-import androidx.annotation.NonNull;
-
 import com.yanzhenjie.andserver.AndServer;
 import com.yanzhenjie.andserver.SSLSocketInitializer;
 import com.yanzhenjie.andserver.Server;
+import com.yanzhenjie.andserver.http.HttpHeaders;
+import com.yanzhenjie.andserver.http.StatusCode;
 import com.yanzhenjie.andserver.util.Executors;
-
-import org.apache.httpcore.ExceptionLogger;
-import org.apache.httpcore.config.SocketConfig;
-import org.apache.httpcore.impl.bootstrap.HttpServer;
-import org.apache.httpcore.impl.bootstrap.SSLServerSetupHandler;
-import org.apache.httpcore.impl.bootstrap.ServerBootstrap;
+import com.yanzhenjie.andserver.util.IOUtils;
+
+import org.apache.httpcore.HttpException;
+import org.apache.httpcore.HttpResponse;
+import org.apache.httpcore.HttpResponseInterceptor;
+import org.apache.httpcore.HttpServerConnection;
+import org.apache.httpcore.HttpVersion;
+import org.apache.httpcore.message.BasicHttpResponse;
+import org.apache.httpcore.protocol.HttpProcessor;
 import org.apache.httpcore.protocol.HttpRequestHandler;
-
+import org.apache.httpcore.protocol.ImmutableHttpProcessor;
+import org.apache.httpcore.protocol.ResponseConnControl;
+import org.apache.httpcore.protocol.ResponseContent;
+import org.apache.httpcore.protocol.ResponseDate;
+import org.apache.httpcore.protocol.ResponseServer;
+import org.apache.httpcore.protocol.UriHttpRequestHandlerMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLException;
-import javax.net.ssl.SSLServerSocket;
 
 /**
  * Created by Zhenjie Yan on 3/7/20.
  */
 public abstract class BasicServer<T extends BasicServer.Builder> implements Server {
 
-//    static final int BUFFER = 8 * 1024;
+    private static final int EVENT_LOOPS = Math.min(2, Runtime.getRuntime().availableProcessors());
 
     protected final InetAddress mInetAddress;
     protected final int mPort;
@@ -50,9 +72,21 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
     protected final ServerSocketFactory mSocketFactory;
     protected final SSLContext mSSLContext;
     protected final SSLSocketInitializer mSSLSocketInitializer;
+    protected final int mCoreWorkers;
+    protected final int mMaxWorkers;
+    protected final int mQueueCapacity;
+    protected final int mRetryAfter;
+    protected final int mBacklog;
+    protected final int mReceiveBufferSize;
+    protected final int mSendBufferSize;
+    protected final int mCompressionMinSize;
+    protected final Executor mExecutor;
+    protected final Server.Transport mTransport;
     protected final Server.ServerListener mListener;
 
-    private HttpServer mHttpServer;
+    private BlockingServer mBlockingServer;
+    private NioServer mNioServer;
+    private HttpRequestHandler mRequestHandler;
     protected boolean isRunning;
 
     BasicServer(T builder) {
@@ -62,7 +96,21 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
         this.mSocketFactory = builder.mSocketFactory;
         this.mSSLContext = builder.sslContext;
         this.mSSLSocketInitializer = builder.mSSLSocketInitializer;
+        this.mCoreWorkers = builder.coreWorkers;
+        this.mMaxWorkers = builder.maxWorkers;
+        this.mQueueCapacity = builder.queueCapacity;
+        this.mRetryAfter = builder.retryAfter;
+        this.mBacklog = builder.backlog;
+        this.mReceiveBufferSize = builder.receiveBufferSize;
+        this.mSendBufferSize = builder.sendBufferSize;
+        this.mCompressionMinSize = builder.compressionMinSize;
+        this.mExecutor = builder.executor;
+        this.mTransport = builder.transport == null ? Server.Transport.BLOCKING : builder.transport;
         this.mListener = builder.listener;
+
+        if (mTransport == Server.Transport.NIO && (mSocketFactory != null || mSSLContext != null)) {
+            throw new IllegalArgumentException("The NIO transport does not support SSLContext and ServerSocketFactory.");
+        }
     }
 
     @Override
@@ -80,30 +128,14 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
             @Override
             public void run() {
                 try {
-                    mHttpServer = ServerBootstrap.bootstrap()
-                        .setServerSocketFactory(mSocketFactory)
-                        .setSocketConfig(
-                            SocketConfig.custom()
-                                .setSoKeepAlive(true)
-                                .setSoReuseAddress(true)
-                                .setTcpNoDelay(true)
-                                .setSoTimeout(mTimeout)
-//                                .setBacklogSize(BUFFER)
-//                                .setRcvBufSize(BUFFER)
-//                                .setSndBufSize(BUFFER)
-                                .setSoLinger(0)
-                                .build()
-                        )
-                        .setLocalAddress(mInetAddress)
-                        .setListenerPort(mPort)
-                        .setSslContext(mSSLContext)
-                        .setSslSetupHandler(new SSLSetup(mSSLSocketInitializer))
-                        .setServerInfo(AndServer.INFO)
-                        .registerHandler("*", requestHandler())
-                        .setExceptionLogger(ExceptionLogger.NO_OP)
-                        .create();
-
-                    mHttpServer.start();
+                    mRequestHandler = requestHandler();
+                    if (mTransport == Server.Transport.NIO) {
+                        mNioServer = new NioServer(BasicServer.this, EVENT_LOOPS, mRequestHandler);
+                        mNioServer.start();
+                    } else {
+                        mBlockingServer = new BlockingServer(BasicServer.this, mRequestHandler);
+                        mBlockingServer.start();
+                    }
                     isRunning = true;
 
                     Executors.getInstance().post(new Runnable() {
@@ -117,7 +149,7 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
                     Runtime.getRuntime().addShutdownHook(new Thread() {
                         @Override
                         public void run() {
-                            mHttpServer.shutdown(3, TimeUnit.SECONDS);
+                            stopServers();
                         }
                     });
                 } catch (final Exception e) {
@@ -151,8 +183,8 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
         Executors.getInstance().execute(new Runnable() {
             @Override
             public void run() {
-                if (mHttpServer != null) {
-                    mHttpServer.shutdown(3, TimeUnit.SECONDS);
+                if (mBlockingServer != null || mNioServer != null) {
+                    stopServers();
                     isRunning = false;
                     Executors.getInstance().post(new Runnable() {
                         @Override
@@ -167,24 +199,125 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
         });
     }
 
-    private static final class SSLSetup implements SSLServerSetupHandler {
+    private void stopServers() {
+        if (mNioServer != null) {
+            mNioServer.shutdown(3, TimeUnit.SECONDS);
+        } else {
+            mBlockingServer.shutdown(3, TimeUnit.SECONDS);
+        }
+        // Release the handler after the requests have been finished, e.g. write the sessions.
+        if (mRequestHandler instanceof Closeable) {
+            IOUtils.closeQuietly((Closeable) mRequestHandler);
+        }
+    }
+
+    /**
+     * Bind the server socket to the address of this server.
+     */
+    void bind(ServerSocket serverSocket) throws IOException {
+        serverSocket.setReuseAddress(true);
+        if (mReceiveBufferSize > 0) {
+            serverSocket.setReceiveBufferSize(mReceiveBufferSize);
+        }
+        serverSocket.bind(new InetSocketAddress(mInetAddress, mPort), mBacklog);
+    }
+
+    /**
+     * Apply the options of this server to an accepted socket.
+     */
+    void configure(Socket socket) throws IOException {
+        socket.setSoTimeout(mTimeout);
+        socket.setKeepAlive(true);
+        socket.setTcpNoDelay(true);
+        if (mReceiveBufferSize > 0) {
+            socket.setReceiveBufferSize(mReceiveBufferSize);
+        }
+        if (mSendBufferSize > 0) {
+            socket.setSendBufferSize(mSendBufferSize);
+        }
+        socket.setSoLinger(true, 0);
+    }
+
+    /**
+     * Get the executor which runs the connections, it throws {@link RejectedExecutionException} when the workers and
+     * the queue are full. The executor of the builder is used if there is one.
+     */
+    Executor createWorkerExecutor(ThreadFactory threadFactory) {
+        if (mExecutor != null) {
+            return mExecutor;
+        }
 
-        private final SSLSocketInitializer mInitializer;
+        BlockingQueue<Runnable> queue = mQueueCapacity > 0
+            ? new ArrayBlockingQueue<Runnable>(mQueueCapacity)
+            : new SynchronousQueue<Runnable>();
+        return new ThreadPoolExecutor(mCoreWorkers, mMaxWorkers, 60L, TimeUnit.SECONDS, queue, threadFactory);
+    }
 
-        public SSLSetup(@NonNull SSLSocketInitializer initializer) {
-            this.mInitializer = initializer;
+    /**
+     * Stop the executor created by {@link #createWorkerExecutor(ThreadFactory)} and wait for the running workers, the
+     * executor of the builder is left to its owner.
+     */
+    void shutdownWorkers(Executor executor, long gracePeriod, TimeUnit timeUnit) {
+        if (executor == mExecutor || !(executor instanceof ExecutorService)) {
+            return;
         }
 
-        @Override
-        public void initialize(SSLServerSocket socket) throws SSLException {
-            mInitializer.onCreated(socket);
+        ExecutorService service = (ExecutorService) executor;
+        service.shutdown();
+        try {
+            service.awaitTermination(gracePeriod, timeUnit);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
         }
     }
 
+    /**
+     * Respond {@code 503} to a connection that no worker can take, and close it.
+     */
+    void reject(Socket socket, HttpServerConnection conn) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, StatusCode.SC_SERVICE_UNAVAILABLE,
+            "Service Unavailable");
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(mRetryAfter));
+        response.setHeader(HttpHeaders.CONTENT_LENGTH, "0");
+        response.setHeader(HttpHeaders.CONNECTION, "close");
+        try {
+            socket.setSoLinger(false, 0);
+            conn.sendResponseHeader(response);
+            conn.flush();
+            socket.shutdownOutput();
+        } catch (IOException | HttpException ignored) {
+        } finally {
+            try {
+                conn.shutdown();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Create the service which processes the requests of a connection.
+     */
+    AsyncHttpService createHttpService(HttpRequestHandler handler) {
+        List<HttpResponseInterceptor> interceptors = new ArrayList<>();
+        interceptors.add(new ResponseDate());
+        interceptors.add(new ResponseServer(AndServer.INFO));
+        if (mCompressionMinSize >= 0) {
+            interceptors.add(new ResponseCompression(mCompressionMinSize));
+        }
+        interceptors.add(new ResponseContent());
+        interceptors.add(new ResponseConnControl());
+        HttpProcessor processor = new ImmutableHttpProcessor(
+            interceptors.toArray(new HttpResponseInterceptor[interceptors.size()]));
+
+        UriHttpRequestHandlerMapper mapper = new UriHttpRequestHandlerMapper();
+        mapper.register("*", handler);
+        return new AsyncHttpService(processor, mapper);
+    }
+
     @Override
     public InetAddress getInetAddress() {
         if (isRunning) {
-            return mHttpServer.getInetAddress();
+            return mNioServer != null ? mNioServer.getInetAddress() : mBlockingServer.getInetAddress();
         }
         throw new IllegalStateException("The server has not been started yet.");
     }
@@ -192,7 +325,7 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
     @Override
     public int getPort() {
         if (isRunning) {
-            return mHttpServer.getLocalPort();
+            return mNioServer != null ? mNioServer.getLocalPort() : mBlockingServer.getLocalPort();
         }
         throw new IllegalStateException("The server has not been started yet.");
     }
@@ -205,6 +338,16 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
         ServerSocketFactory mSocketFactory;
         SSLContext sslContext;
         SSLSocketInitializer mSSLSocketInitializer;
+        int coreWorkers = 0;
+        int maxWorkers = 128;
+        int queueCapacity;
+        int retryAfter = 1;
+        int backlog;
+        int receiveBufferSize;
+        int sendBufferSize;
+        int compressionMinSize = -1;
+        Executor executor;
+        Server.Transport transport;
         Server.ServerListener listener;
 
         Builder() {
@@ -241,6 +384,51 @@ public abstract class BasicServer<T extends BasicServer.Builder> implements Serv
             return (T) this;
         }
 
+        public T workers(int coreSize, int maxSize) {
+            if (coreSize < 0 || maxSize <= 0 || maxSize < coreSize) {
+                throw new IllegalArgumentException("The size of the workers is invalid.");
+            }
+            this.coreWorkers = coreSize;
+            this.maxWorkers = maxSize;
+            return (T) this;
+        }
+
+        public T workQueue(int capacity) {
+            this.queueCapacity = Math.max(0, capacity);
+            return (T) this;
+        }
+
+        public T retryAfter(int seconds) {
+            this.retryAfter = Math.max(0, seconds);
+            return (T) this;
+        }
+
+        public T backlog(int backlog) {
+            this.backlog = Math.max(0, backlog);
+            return (T) this;
+        }
+
+        public T bufferSize(int receiveSize, int sendSize) {
+            this.receiveBufferSize = Math.max(0, receiveSize);
+            this.sendBufferSize = Math.max(0, sendSize);
+            return (T) this;
+        }
+
+        public T compression(int minSize) {
+            this.compressionMinSize = Math.max(0, minSize);
+            return (T) this;
+        }
+
+        public T executor(Executor executor) {
+            this.executor = executor;
+            return (T) this;
+        }
+
+        public T transport(Server.Transport transport) {
+            this.transport = transport;
+            return (T) this;
+        }
+
         public T listener(Server.ServerListener listener) {
             this.listener = listener;
             return (T) this;
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import com.yanzhenjie.andserver.http.UpgradeHandler;
+
+import org.apache.httpcore.HttpException;
+import org.apache.httpcore.protocol.BasicHttpContext;
+import org.apache.httpcore.protocol.HttpContext;
+import org.apache.httpcore.protocol.HttpRequestHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ServerSocketFactory;
+import javax.net.ssl.SSLServerSocket;
+
+/**
+ * <p> A thread-per-connection http server, the workers are limited by the options of the {@link BasicServer}. </p>
+ */
+class BlockingServer implements Runnable {
+
+    private static final int BUFFER = 8 * 1024;
+
+    private final BasicServer<?> mServer;
+    private final AsyncHttpService mHttpService;
+
+    private final ThreadPoolExecutor mListenerExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new SynchronousQueue<Runnable>(), new ThreadFactoryImpl("HTTP-Listener"));
+    private final ThreadGroup mWorkerThreads = new ThreadGroup("HTTP-Workers");
+    private final Executor mWorkerExecutor;
+    private final Set<Worker> mWorkerSet = Collections.newSetFromMap(new ConcurrentHashMap<Worker, Boolean>());
+
+    private ServerSocket mServerSocket;
+
+    BlockingServer(BasicServer<?> server, HttpRequestHandler handler) {
+        this.mServer = server;
+        this.mHttpService = server.createHttpService(handler);
+        this.mWorkerExecutor = server.createWorkerExecutor(new ThreadFactoryImpl("HTTP-Handlers", mWorkerThreads));
+    }
+
+    public void start() throws IOException {
+        ServerSocketFactory socketFactory = mServer.mSocketFactory;
+        if (socketFactory == null) {
+            if (mServer.mSSLContext != null) {
+                socketFactory = mServer.mSSLContext.getServerSocketFactory();
+            } else {
+                socketFactory = ServerSocketFactory.getDefault();
+            }
+        }
+
+        mServerSocket = socketFactory.createServerSocket();
+        mServer.bind(mServerSocket);
+        if (mServer.mSSLSocketInitializer != null && mServerSocket instanceof SSLServerSocket) {
+            mServer.mSSLSocketInitializer.onCreated((SSLServerSocket) mServerSocket);
+        }
+
+        mListenerExecutor.execute(this);
+    }
+
+    public void shutdown(long gracePeriod, TimeUnit timeUnit) {
+        mListenerExecutor.shutdown();
+        try {
+            mServerSocket.close();
+        } catch (IOException ignored) {
+        }
+
+        mServer.shutdownWorkers(mWorkerExecutor, gracePeriod, timeUnit);
+        mWorkerThreads.interrupt();
+
+        for (Worker worker: mWorkerSet) {
+            worker.close();
+        }
+    }
+
+    public InetAddress getInetAddress() {
+        return mServerSocket.getInetAddress();
+    }
+
+    public int getLocalPort() {
+        return mServerSocket.getLocalPort();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.interrupted()) {
+                Socket socket = mServerSocket.accept();
+                ServerConnection serverConn = new ServerConnection(BUFFER);
+                try {
+                    mServer.configure(socket);
+                    serverConn.bind(socket);
+                } catch (IOException e) {
+                    serverConn.shutdown();
+                    socket.close();
+                    continue;
+                }
+
+                try {
+                    mWorkerExecutor.execute(new Worker(serverConn));
+                } catch (RejectedExecutionException e) {
+                    mServer.reject(socket, serverConn);
+                }
+            }
+        } catch (Exception ignored) {
+        }
+    }
+
+    private final class Worker implements Runnable, AsyncHttpService.Callback {
+
+        private final ServerConnection mServerConn;
+        private final HttpContext mContext;
+        private volatile AsyncHttpService.Exchange mExchange;
+
+        private Worker(ServerConnection serverConn) {
+            this.mServerConn = serverConn;
+            this.mContext = new BasicHttpContext();
+        }
+
+        @Override
+        public void run() {
+            mWorkerSet.add(this);
+            boolean suspended = false;
+            UpgradeHandler upgrade = null;
+            try {
+                AsyncHttpService.Exchange exchange = mExchange;
+                if (exchange != null) {
+                    mExchange = null;
+                    exchange.finish();
+                    upgrade = AsyncHttpService.takeUpgrade(mContext);
+                }
+
+                while (upgrade == null && !Thread.interrupted() && mServerConn.isOpen()) {
+                    if (mHttpService.handleRequest(mServerConn, mContext, this) != null) {
+                        // The connection goes on in a worker when the response is completed.
+                        suspended = true;
+                        return;
+                    }
+                    upgrade = AsyncHttpService.takeUpgrade(mContext);
+                }
+
+                if (upgrade != null) {
+                    // The connection is kept by the protocol, e.g. a WebSocket, until one side closes it.
+                    mServerConn.setSocketTimeout(0);
+                    upgrade.onUpgrade(mServerConn.getInputStream(), mServerConn.getOutputStream(), new Closeable() {
+                        @Override
+                        public void close() throws IOException {
+                            mServerConn.closeSocket();
+                        }
+                    }, mWorkerExecutor);
+                    boolean isReadable = true;
+                    while (isReadable && mServerConn.isOpen()) {
+                        isReadable = upgrade.onReadable();
+                    }
+                    mServerConn.closeSocket();
+                } else {
+                    mServerConn.close();
+                }
+            } catch (IOException | HttpException | RuntimeException ignored) {
+            } finally {
+                if (!suspended) {
+                    mWorkerSet.remove(this);
+                    close();
+                    if (upgrade != null) {
+                        upgrade.onClosed();
+                    }
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                mServerConn.shutdown();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public void onCompleted(AsyncHttpService.Exchange exchange) {
+            mExchange = exchange;
+            try {
+                mWorkerExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                mWorkerSet.remove(this);
+                close();
+            }
+        }
+    }
+}
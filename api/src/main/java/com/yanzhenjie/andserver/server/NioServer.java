@@ -0,0 +1,527 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import com.yanzhenjie.andserver.http.UpgradeHandler;
+
+import org.apache.httpcore.HttpException;
+import org.apache.httpcore.protocol.BasicHttpContext;
+import org.apache.httpcore.protocol.HttpContext;
+import org.apache.httpcore.protocol.HttpRequestHandler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p> A selector based http server. </p>
+ *
+ * Idle connections are watched by a few event loops without holding a thread. When a connection becomes readable it
+ * leaves the selector and a worker thread serves the requests with the blocking {@link HttpService}, then the
+ * connection goes back to the event loop. So the {@link HttpRequestHandler} works as it does on the blocking server.
+ *
+ * A connection which has switched protocols, e.g. a WebSocket, stays in non-blocking mode, so the data can be written
+ * from any thread while the connection is watched by the selector. A thread which has to wait for such a connection,
+ * e.g. the rest of a frame or the room in the send buffer, waits on a spare selector of the pool.
+ */
+class NioServer {
+
+    private static final int BUFFER = 8 * 1024;
+    private static final long MAX_WAIT = 1000;
+
+    private final BasicServer<?> mServer;
+    private final int mTimeout;
+    private final AsyncHttpService mHttpService;
+
+    private final EventLoop[] mEventLoops;
+    private final AtomicInteger mNextLoop = new AtomicInteger();
+    private final ExecutorService mLoopExecutor;
+    private final Executor mWorkerExecutor;
+    private final Queue<Selector> mSpareSelectors = new ConcurrentLinkedQueue<>();
+
+    private ServerSocketChannel mServerChannel;
+
+    /**
+     * Create a server.
+     *
+     * @param server the server which provides the address and the options.
+     * @param eventLoopCount the count of the event loop threads.
+     * @param handler the handler of all requests.
+     */
+    NioServer(BasicServer<?> server, int eventLoopCount, HttpRequestHandler handler) {
+        this.mServer = server;
+        this.mTimeout = server.mTimeout;
+        this.mHttpService = server.createHttpService(handler);
+
+        this.mEventLoops = new EventLoop[Math.max(1, eventLoopCount)];
+        this.mLoopExecutor = new ThreadPoolExecutor(mEventLoops.length, mEventLoops.length, 0L,
+            TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(), new ThreadFactoryImpl("HTTP-EventLoop"));
+        this.mWorkerExecutor = server.createWorkerExecutor(new ThreadFactoryImpl("HTTP-Handlers"));
+    }
+
+    public void start() throws IOException {
+        mServerChannel = ServerSocketChannel.open();
+        mServer.bind(mServerChannel.socket());
+        mServerChannel.configureBlocking(false);
+
+        for (int i = 0; i < mEventLoops.length; i++) {
+            mEventLoops[i] = new EventLoop(Selector.open());
+        }
+        mServerChannel.register(mEventLoops[0].mSelector, SelectionKey.OP_ACCEPT);
+        for (EventLoop loop: mEventLoops) {
+            mLoopExecutor.execute(loop);
+        }
+    }
+
+    public void shutdown(long gracePeriod, TimeUnit timeUnit) {
+        try {
+            mServerChannel.close();
+        } catch (IOException ignored) {
+        }
+        for (EventLoop loop: mEventLoops) {
+            if (loop != null) {
+                loop.close();
+            }
+        }
+        mLoopExecutor.shutdown();
+        mServer.shutdownWorkers(mWorkerExecutor, gracePeriod, timeUnit);
+
+        Selector selector;
+        while ((selector = mSpareSelectors.poll()) != null) {
+            closeSelector(selector);
+        }
+    }
+
+    private static void closeSelector(Selector selector) {
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public InetAddress getInetAddress() {
+        return mServerChannel.socket().getInetAddress();
+    }
+
+    public int getLocalPort() {
+        return mServerChannel.socket().getLocalPort();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = mServerChannel.accept()) != null) {
+            Connection connection;
+            try {
+                mServer.configure(channel.socket());
+                connection = new Connection(channel);
+            } catch (IOException e) {
+                channel.close();
+                continue;
+            }
+            EventLoop loop = mEventLoops[(mNextLoop.getAndIncrement() & Integer.MAX_VALUE) % mEventLoops.length];
+            loop.register(connection);
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+
+        private final Selector mSelector;
+        private final Queue<Connection> mPending = new ConcurrentLinkedQueue<>();
+        private long mLastSweep;
+
+        private EventLoop(Selector selector) {
+            this.mSelector = selector;
+        }
+
+        /**
+         * Watch the connection until it becomes readable, it can be called from any thread.
+         */
+        private void register(Connection connection) {
+            if (!mSelector.isOpen()) {
+                connection.close();
+                return;
+            }
+            mPending.add(connection);
+            mSelector.wakeup();
+        }
+
+        private void close() {
+            try {
+                for (SelectionKey key: mSelector.keys()) {
+                    Object attachment = key.attachment();
+                    if (attachment instanceof Connection) {
+                        ((Connection) attachment).close();
+                    }
+                }
+                mSelector.close();
+
+                Connection connection;
+                while ((connection = mPending.poll()) != null) {
+                    connection.close();
+                }
+            } catch (IOException | ClosedSelectorException ignored) {
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Connection> readyList = new ArrayList<>();
+            try {
+                while (mSelector.isOpen()) {
+                    mSelector.select(1000);
+
+                    Iterator<SelectionKey> iterator = mSelector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey key = iterator.next();
+                        iterator.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            key.cancel();
+                            readyList.add((Connection) key.attachment());
+                        }
+                    }
+
+                    if (!readyList.isEmpty()) {
+                        // Deregister the cancelled keys, then the channels can be switched to blocking mode.
+                        mSelector.selectNow();
+                        for (Connection connection: readyList) {
+                            dispatch(connection);
+                        }
+                        readyList.clear();
+                    }
+
+                    registerPending();
+                    sweepIdle();
+                }
+            } catch (IOException | ClosedSelectorException ignored) {
+            }
+        }
+
+        private void dispatch(Connection connection) {
+            try {
+                if (connection.mUpgrade == null) {
+                    connection.mChannel.configureBlocking(true);
+                }
+                mWorkerExecutor.execute(new Worker(this, connection));
+            } catch (RejectedExecutionException e) {
+                if (connection.mUpgrade == null) {
+                    mServer.reject(connection.mChannel.socket(), connection.mServerConn);
+                }
+                connection.close();
+            } catch (Exception e) {
+                connection.close();
+            }
+        }
+
+        private void registerPending() {
+            Connection connection;
+            while ((connection = mPending.poll()) != null) {
+                try {
+                    if (connection.mUpgrade == null) {
+                        connection.mChannel.configureBlocking(false);
+                    }
+                    connection.mChannel.register(mSelector, SelectionKey.OP_READ, connection);
+                    connection.mLastActive = System.currentTimeMillis();
+                } catch (IOException e) {
+                    connection.close();
+                }
+            }
+        }
+
+        private void sweepIdle() {
+            long now = System.currentTimeMillis();
+            if (mTimeout <= 0 || now - mLastSweep < 1000) {
+                return;
+            }
+            mLastSweep = now;
+
+            for (SelectionKey key: mSelector.keys()) {
+                Object attachment = key.attachment();
+                if (attachment instanceof Connection) {
+                    Connection connection = (Connection) attachment;
+                    if (connection.mUpgrade == null && now - connection.mLastActive > mTimeout) {
+                        key.cancel();
+                        connection.close();
+                    }
+                }
+            }
+        }
+    }
+
+    private final class Worker implements Runnable, AsyncHttpService.Callback {
+
+        private final EventLoop mLoop;
+        private final Connection mConnection;
+        private volatile AsyncHttpService.Exchange mExchange;
+
+        private Worker(EventLoop loop, Connection connection) {
+            this.mLoop = loop;
+            this.mConnection = connection;
+        }
+
+        @Override
+        public void run() {
+            ServerConnection serverConn = mConnection.mServerConn;
+            try {
+                boolean isReadable = true;
+                AsyncHttpService.Exchange exchange = mExchange;
+                if (exchange != null) {
+                    mExchange = null;
+                    exchange.finish();
+                    upgrade();
+                    isReadable = false;
+                }
+
+                while (serverConn.isOpen() && (isReadable || serverConn.hasBufferedData())) {
+                    isReadable = false;
+                    if (!process()) {
+                        // The connection is neither in the selector nor in a worker until the response is completed.
+                        return;
+                    }
+                }
+
+                if (serverConn.isOpen()) {
+                    mLoop.register(mConnection);
+                } else {
+                    mConnection.close();
+                }
+            } catch (IOException | HttpException | RuntimeException e) {
+                mConnection.close();
+            }
+        }
+
+        /**
+         * Process the next request, or the data of the protocol which the connection has switched to.
+         *
+         * @return false if the response is suspended.
+         */
+        private boolean process() throws IOException, HttpException {
+            UpgradeHandler upgrade = mConnection.mUpgrade;
+            if (upgrade != null) {
+                if (!upgrade.onReadable()) {
+                    mConnection.close();
+                }
+                return true;
+            }
+
+            if (mHttpService.handleRequest(mConnection.mServerConn, mConnection.mContext, this) != null) {
+                return false;
+            }
+            upgrade();
+            return true;
+        }
+
+        private void upgrade() throws IOException {
+            UpgradeHandler upgrade = AsyncHttpService.takeUpgrade(mConnection.mContext);
+            if (upgrade != null) {
+                mConnection.upgrade(upgrade);
+            }
+        }
+
+        @Override
+        public void onCompleted(AsyncHttpService.Exchange exchange) {
+            mExchange = exchange;
+            try {
+                mWorkerExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                mConnection.close();
+            }
+        }
+    }
+
+    private final class Connection implements Closeable {
+
+        private final SocketChannel mChannel;
+        private final ServerConnection mServerConn;
+        private final HttpContext mContext;
+        private final AtomicBoolean isClosed = new AtomicBoolean();
+        private volatile long mLastActive;
+        private volatile UpgradeHandler mUpgrade;
+
+        private Connection(SocketChannel channel) throws IOException {
+            this.mChannel = channel;
+            this.mServerConn = new ServerConnection(BUFFER);
+            this.mServerConn.bind(channel.socket());
+            this.mContext = new BasicHttpContext();
+        }
+
+        /**
+         * Switch to the protocol, the channel stays in non-blocking mode from now on.
+         */
+        private void upgrade(UpgradeHandler upgrade) throws IOException {
+            mChannel.configureBlocking(false);
+            mUpgrade = upgrade;
+            upgrade.onUpgrade(new ChannelInputStream(this), new ChannelOutputStream(this), this, mWorkerExecutor);
+        }
+
+        @Override
+        public void close() {
+            if (!isClosed.compareAndSet(false, true)) {
+                return;
+            }
+            UpgradeHandler upgrade = mUpgrade;
+            try {
+                if (upgrade != null) {
+                    mServerConn.closeSocket();
+                } else {
+                    mServerConn.shutdown();
+                }
+            } catch (IOException ignored) {
+            }
+            try {
+                mChannel.close();
+            } catch (IOException ignored) {
+            }
+
+            if (upgrade != null) {
+                upgrade.onClosed();
+            }
+        }
+
+        /**
+         * Wait until the non-blocking channel is ready for the operation, the caller tries again when it returns.
+         *
+         * @param ops {@link SelectionKey#OP_READ} or {@link SelectionKey#OP_WRITE}.
+         * @param deadline the time when the wait fails, 0 means no limit.
+         */
+        private void await(int ops, long deadline) throws IOException {
+            if (!mChannel.isOpen()) {
+                throw new IOException("The connection has been closed.");
+            }
+            long timeout = MAX_WAIT;
+            if (deadline > 0) {
+                timeout = Math.min(timeout, deadline - System.currentTimeMillis());
+                if (timeout <= 0) {
+                    throw new SocketTimeoutException();
+                }
+            }
+
+            Selector selector = mSpareSelectors.poll();
+            if (selector == null) {
+                selector = Selector.open();
+            }
+            try {
+                // The channel can be registered with several selectors, it stays in the selector of the event loop.
+                SelectionKey key = mChannel.register(selector, ops);
+                try {
+                    selector.select(timeout);
+                } finally {
+                    key.cancel();
+                    selector.selectNow();
+                }
+            } catch (IOException | RuntimeException e) {
+                closeSelector(selector);
+                throw e;
+            }
+
+            if (mLoopExecutor.isShutdown()) {
+                closeSelector(selector);
+            } else {
+                mSpareSelectors.add(selector);
+            }
+        }
+
+        private long deadline() {
+            return mTimeout > 0 ? System.currentTimeMillis() + mTimeout : 0;
+        }
+    }
+
+    private static final class ChannelInputStream extends InputStream {
+
+        private final Connection mConnection;
+
+        private ChannelInputStream(Connection connection) {
+            this.mConnection = connection;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int count = read(b, 0, 1);
+            return count == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (mConnection.mServerConn.hasBufferedData()) {
+                return mConnection.mServerConn.readBuffered(b, off, len);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            long deadline = mConnection.deadline();
+            int count;
+            while ((count = mConnection.mChannel.read(buffer)) == 0) {
+                mConnection.await(SelectionKey.OP_READ, deadline);
+            }
+            return count;
+        }
+    }
+
+    private static final class ChannelOutputStream extends OutputStream {
+
+        private final Connection mConnection;
+
+        private ChannelOutputStream(Connection connection) {
+            this.mConnection = connection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            long deadline = mConnection.deadline();
+            while (buffer.hasRemaining()) {
+                if (mConnection.mChannel.write(buffer) == 0) {
+                    mConnection.await(SelectionKey.OP_WRITE, deadline);
+                }
+            }
+        }
+    }
+}
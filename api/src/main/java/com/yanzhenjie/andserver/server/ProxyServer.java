@@ -15,8 +15,6 @@
  */
 package com.yanzhenjie.andserver.server;
 
-import androidx.annotation.NonNull;
-
 import com.yanzhenjie.andserver.AndServer;
 import com.yanzhenjie.andserver.ProxyHandler;
 import com.yanzhenjie.andserver.SSLSocketInitializer;
@@ -42,8 +40,6 @@ import org.apache.httpcore.protocol.ResponseServer;
 import org.apache.httpcore.protocol.UriHttpRequestHandlerMapper;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.HashMap;
@@ -51,11 +47,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
 
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLContext;
@@ -73,9 +69,6 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
         return new ProxyServer.Builder();
     }
 
-    private final InetAddress mInetAddress;
-    private final int mPort;
-    private final int mTimeout;
     private final ServerSocketFactory mSocketFactory;
     private final SSLContext mSSLContext;
     private final SSLSocketInitializer mSSLSocketInitializer;
@@ -88,9 +81,6 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
 
     private ProxyServer(Builder builder) {
         super(builder);
-        this.mInetAddress = builder.inetAddress;
-        this.mPort = builder.port;
-        this.mTimeout = builder.timeout;
         this.mSocketFactory = builder.mSocketFactory;
         this.mSSLContext = builder.sslContext;
         this.mSSLSocketInitializer = builder.mSSLSocketInitializer;
@@ -122,9 +112,7 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
                     }
                 }
 
-                mHttpServer = new HttpServer(mInetAddress,
-                    mPort,
-                    mTimeout,
+                mHttpServer = new HttpServer(ProxyServer.this,
                     socketFactory,
                     mSSLSocketInitializer,
                     requestHandler());
@@ -200,9 +188,7 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
 
     private static class HttpServer implements Runnable {
 
-        private final InetAddress mInetAddress;
-        private final int mPort;
-        private final int mTimeout;
+        private final BasicServer<?> mServer;
         private final ServerSocketFactory mSocketFactory;
         private final SSLSocketInitializer mSSLSocketInitializer;
         private final HttpRequestHandler mHandler;
@@ -210,32 +196,15 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
         private final ThreadPoolExecutor mServerExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
             new SynchronousQueue<>(), new ThreadFactoryImpl("HTTP-Server-"));
         private final ThreadGroup mWorkerThreads = new ThreadGroup("HTTP-workers");
-        private final ThreadPoolExecutor mWorkerExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1L,
-            TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactoryImpl("HTTP-Handlers-", mWorkerThreads)) {
-            @Override
-            protected void beforeExecute(Thread t, Runnable r) {
-                if (r instanceof Worker) {
-                    mWorkerSet.put((Worker) r, Boolean.TRUE);
-                }
-            }
-
-            @Override
-            protected void afterExecute(Runnable r, Throwable t) {
-                if (r instanceof Worker) {
-                    mWorkerSet.remove(r);
-                }
-            }
-        };
+        private final Executor mWorkerExecutor;
         private final Map<Worker, Boolean> mWorkerSet = new ConcurrentHashMap<>();
 
         private HttpService mHttpService;
         private ServerSocket mServerSocket;
 
-        public HttpServer(InetAddress inetAddress, int port, int timeout, ServerSocketFactory socketFactory,
+        public HttpServer(BasicServer<?> server, ServerSocketFactory socketFactory,
                           SSLSocketInitializer sslSocketInitializer, HttpRequestHandler handler) {
-            this.mInetAddress = inetAddress;
-            this.mPort = port;
-            this.mTimeout = timeout;
+            this.mServer = server;
             this.mSocketFactory = socketFactory;
             this.mSSLSocketInitializer = sslSocketInitializer;
             this.mHandler = handler;
@@ -250,14 +219,13 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
             mapper.register("*", mHandler);
 
             this.mHttpService = new HttpService(inProcessor, mapper);
+            this.mWorkerExecutor = server.createWorkerExecutor(
+                new ThreadFactoryImpl("HTTP-Handlers-", mWorkerThreads));
         }
 
         public void startServer() throws IOException {
             mServerSocket = mSocketFactory.createServerSocket();
-            mServerSocket.setReuseAddress(true);
-//            mServerSocket.bind(new InetSocketAddress(mInetAddress, mPort), BUFFER);
-//            mServerSocket.setReceiveBufferSize(BUFFER);
-            mServerSocket.bind(new InetSocketAddress(mInetAddress, mPort));
+            mServer.bind(mServerSocket);
             if (mSSLSocketInitializer != null && mServerSocket instanceof SSLServerSocket) {
                 mSSLSocketInitializer.onCreated((SSLServerSocket) mServerSocket);
             }
@@ -267,18 +235,13 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
 
         public void stopServer() {
             mServerExecutor.shutdown();
-            mWorkerExecutor.shutdown();
             try {
                 mServerSocket.close();
             } catch (IOException ignored) {
             }
             mWorkerThreads.interrupt();
 
-            try {
-                mWorkerExecutor.awaitTermination(3, TimeUnit.SECONDS);
-            } catch (InterruptedException ex) {
-                Thread.currentThread().interrupt();
-            }
+            mServer.shutdownWorkers(mWorkerExecutor, 3, TimeUnit.SECONDS);
 
             Set<Worker> workers = mWorkerSet.keySet();
             for (Worker worker: workers) {
@@ -295,20 +258,29 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
             try {
                 while (!Thread.interrupted()) {
                     Socket socket = mServerSocket.accept();
-                    socket.setSoTimeout(mTimeout);
-                    socket.setKeepAlive(true);
-                    socket.setTcpNoDelay(true);
-//                    socket.setReceiveBufferSize(BUFFER);
-//                    socket.setSendBufferSize(BUFFER);
-                    socket.setSoLinger(true, 0);
+                    mServer.configure(socket);
 
                     DefaultBHttpServerConnection serverConn = new DefaultBHttpServerConnection(8192);
                     serverConn.bind(socket);
 
                     DefaultBHttpClientConnection clientConn = new DefaultBHttpClientConnection(8192);
-                    Worker worker = new Worker(mHttpService, serverConn, clientConn);
-
-                    mWorkerExecutor.execute(worker);
+                    final Worker worker = new Worker(mHttpService, serverConn, clientConn);
+
+                    try {
+                        mWorkerExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                mWorkerSet.put(worker, Boolean.TRUE);
+                                try {
+                                    worker.run();
+                                } finally {
+                                    mWorkerSet.remove(worker);
+                                }
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        mServer.reject(socket, serverConn);
+                    }
                 }
             } catch (Exception ignored) {
             }
@@ -372,25 +344,4 @@ public class ProxyServer extends BasicServer<ProxyServer.Builder> {
             }
         }
     }
-
-    private static class ThreadFactoryImpl implements ThreadFactory {
-        private final String mPrefix;
-        private final ThreadGroup mGroup;
-        private final AtomicLong mCount;
-
-        ThreadFactoryImpl(String prefix, ThreadGroup group) {
-            this.mPrefix = prefix;
-            this.mGroup = group;
-            this.mCount = new AtomicLong();
-        }
-
-        ThreadFactoryImpl(String mPrefix) {
-            this(mPrefix, null);
-        }
-
-        @Override
-        public Thread newThread(@NonNull Runnable target) {
-            return new Thread(mGroup, target, mPrefix + "-" + mCount.incrementAndGet());
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import com.yanzhenjie.andserver.http.HttpHeaders;
+import com.yanzhenjie.andserver.http.StatusCode;
+import com.yanzhenjie.andserver.util.AcceptEncoding;
+
+import org.apache.httpcore.Header;
+import org.apache.httpcore.HttpEntity;
+import org.apache.httpcore.HttpException;
+import org.apache.httpcore.HttpRequest;
+import org.apache.httpcore.HttpResponse;
+import org.apache.httpcore.HttpResponseInterceptor;
+import org.apache.httpcore.entity.HttpEntityWrapper;
+import org.apache.httpcore.message.BasicHeader;
+import org.apache.httpcore.protocol.HttpContext;
+import org.apache.httpcore.protocol.HttpCoreContext;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p> Compress the response body with {@code gzip} or {@code deflate} according to the {@code Accept-Encoding} of the
+ * request. </p>
+ *
+ * Only the text-like bodies whose length is known and not less than the min size are compressed, the streaming
+ * bodies, e.g. {@code SseBody}, are sent as is since they rely on every chunk being flushed.
+ */
+class ResponseCompression implements HttpResponseInterceptor {
+
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final int mMinSize;
+
+    ResponseCompression(int minSize) {
+        this.mMinSize = minSize;
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null || entity.isChunked() || entity.getContentEncoding() != null) {
+            return;
+        }
+        int status = response.getStatusLine().getStatusCode();
+        if (status < StatusCode.SC_OK || status == StatusCode.SC_NO_CONTENT ||
+            status == StatusCode.SC_PARTIAL_CONTENT || status == StatusCode.SC_NOT_MODIFIED) {
+            return;
+        }
+        if (response.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return;
+        }
+        long length = entity.getContentLength();
+        if (length < mMinSize || !isCompressible(entity.getContentType())) {
+            return;
+        }
+
+        addVary(response);
+
+        HttpRequest request = (HttpRequest) context.getAttribute(HttpCoreContext.HTTP_REQUEST);
+        String encoding = request == null ? null : negotiate(request.getHeaders(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            return;
+        }
+
+        Header eTag = response.getFirstHeader(HttpHeaders.ETAG);
+        if (eTag != null && !eTag.getValue().startsWith("W/")) {
+            response.setHeader(HttpHeaders.ETAG, "W/" + eTag.getValue());
+        }
+        response.setEntity(new CompressedEntity(entity, encoding));
+    }
+
+    private static void addVary(HttpResponse response) {
+        for (Header header: response.getHeaders(HttpHeaders.VARY)) {
+            for (String token: header.getValue().split(",")) {
+                String value = token.trim();
+                if ("*".equals(value) || HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(value)) {
+                    return;
+                }
+            }
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    /**
+     * Select the encoding which has the highest quality, {@code gzip} is preferred when they are equal.
+     */
+    private static String negotiate(Header[] headers) {
+        List<String> values = new ArrayList<>(headers.length);
+        for (Header header: headers) {
+            values.add(header.getValue());
+        }
+        float[] qualities = AcceptEncoding.getQualities(values, GZIP, DEFLATE);
+        float gzip = qualities[0];
+        float deflate = qualities[1];
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    private static boolean isCompressible(Header contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.getValue();
+        int index = type.indexOf(';');
+        if (index != -1) {
+            type = type.substring(0, index);
+        }
+        type = type.trim().toLowerCase(Locale.ENGLISH);
+
+        if (type.startsWith("text/")) {
+            return !"text/event-stream".equals(type);
+        }
+        return "application/json".equals(type) || "application/javascript".equals(type) ||
+            "application/x-javascript".equals(type) || "application/ecmascript".equals(type) ||
+            "application/xml".equals(type) || "image/svg+xml".equals(type) || type.endsWith("+json") ||
+            type.endsWith("+xml");
+    }
+
+    private static class CompressedEntity extends HttpEntityWrapper implements Closeable {
+
+        private final String mEncoding;
+
+        private CompressedEntity(HttpEntity entity, String encoding) {
+            super(entity);
+            this.mEncoding = encoding;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return new BasicHeader(HttpHeaders.CONTENT_ENCODING, mEncoding);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            OutputStream target = new UnclosableOutputStream(out);
+            DeflaterOutputStream stream = GZIP.equals(mEncoding)
+                ? new GZIPOutputStream(target, BUFFER_SIZE)
+                : new DeflaterOutputStream(target);
+            try {
+                wrappedEntity.writeTo(new UnclosableOutputStream(stream));
+            } finally {
+                // Writes the trailer and releases the deflater, the connection stays open.
+                stream.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (wrappedEntity instanceof Closeable) {
+                ((Closeable) wrappedEntity).close();
+            }
+        }
+    }
+
+    private static class UnclosableOutputStream extends FilterOutputStream {
+
+        private UnclosableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import org.apache.httpcore.impl.DefaultBHttpServerConnection;
+import org.apache.httpcore.impl.io.IdentityInputStream;
+import org.apache.httpcore.impl.io.IdentityOutputStream;
+import org.apache.httpcore.impl.io.SessionInputBufferImpl;
+import org.apache.httpcore.io.SessionOutputBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+
+/**
+ * <p> A http connection which exposes the buffers, e.g. for the protocol after an upgrade. </p>
+ */
+class ServerConnection extends DefaultBHttpServerConnection {
+
+    ServerConnection(int bufferSize) {
+        super(bufferSize);
+    }
+
+    /**
+     * Whether the next data has been read into the buffer, e.g. a pipelined request.
+     */
+    boolean hasBufferedData() {
+        return ((SessionInputBufferImpl) getSessionInputBuffer()).hasBufferedData();
+    }
+
+    /**
+     * Read the data in the buffer without reading the socket, it is only valid when {@link #hasBufferedData()}.
+     */
+    int readBuffered(byte[] b, int off, int len) throws IOException {
+        return getSessionInputBuffer().read(b, off, len);
+    }
+
+    /**
+     * Close the connection, unlike {@link #shutdown()} the data which has been written is not discarded.
+     */
+    void closeSocket() throws IOException {
+        Socket socket = getSocket();
+        if (socket != null) {
+            try {
+                socket.setSoLinger(false, 0);
+            } finally {
+                socket.close();
+            }
+        }
+        shutdown();
+    }
+
+    @Override
+    protected OutputStream createOutputStream(long len, SessionOutputBuffer outbuffer) {
+        Socket socket = getSocket();
+        SocketChannel channel = socket == null ? null : socket.getChannel();
+        if (len >= 0 && channel != null && channel.isBlocking()) {
+            return new TransferOutputStream(outbuffer, channel, len);
+        }
+        return super.createOutputStream(len, outbuffer);
+    }
+
+    /**
+     * Get the raw input of the connection, it starts with the buffered data.
+     */
+    InputStream getInputStream() {
+        return new IdentityInputStream(getSessionInputBuffer());
+    }
+
+    /**
+     * Get the raw output of the connection.
+     */
+    OutputStream getOutputStream() {
+        return new IdentityOutputStream(getSessionOutputBuffer());
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Create the threads which are named by the prefix and a sequence number.
+ */
+class ThreadFactoryImpl implements ThreadFactory {
+
+    private final String mPrefix;
+    private final ThreadGroup mGroup;
+    private final AtomicLong mCount;
+
+    ThreadFactoryImpl(String prefix, ThreadGroup group) {
+        this.mPrefix = prefix;
+        this.mGroup = group;
+        this.mCount = new AtomicLong();
+    }
+
+    ThreadFactoryImpl(String mPrefix) {
+        this(mPrefix, null);
+    }
+
+    @Override
+    public Thread newThread(@NonNull Runnable target) {
+        return new Thread(mGroup, target, mPrefix + "-" + mCount.incrementAndGet());
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.server;
+
+import androidx.annotation.NonNull;
+
+import com.yanzhenjie.andserver.http.FileChannelOutput;
+
+import org.apache.httpcore.io.SessionOutputBuffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p> The output of the content whose length is known, the files and the buffers are transferred to the socket
+ * directly. </p>
+ */
+class TransferOutputStream extends OutputStream implements FileChannelOutput, WritableByteChannel {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SessionOutputBuffer mBuffer;
+    private final SocketChannel mChannel;
+    private final long mLength;
+
+    private long mTotal;
+    private boolean isClosed;
+
+    TransferOutputStream(SessionOutputBuffer buffer, SocketChannel channel, long length) {
+        this.mBuffer = buffer;
+        this.mChannel = channel;
+        this.mLength = length;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkClosed();
+        if (mTotal < mLength) {
+            mBuffer.write(b);
+            mTotal++;
+        }
+    }
+
+    @Override
+    public void write(@NonNull byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        int count = (int) Math.min(len, mLength - mTotal);
+        if (count > 0) {
+            mBuffer.write(b, off, count);
+            mTotal += count;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        checkClosed();
+        int count = (int) Math.min(src.remaining(), mLength - mTotal);
+        if (count <= 0) {
+            return 0;
+        }
+
+        mBuffer.flush();
+        int limit = src.limit();
+        src.limit(src.position() + count);
+        try {
+            int written = 0;
+            while (src.hasRemaining()) {
+                written += mChannel.write(src);
+            }
+            mTotal += written;
+            return written;
+        } finally {
+            src.limit(limit);
+        }
+    }
+
+    @Override
+    public void transferFrom(@NonNull FileChannel channel, long position, long count) throws IOException {
+        checkClosed();
+        count = Math.min(count, mLength - mTotal);
+        if (count <= 0) {
+            return;
+        }
+
+        // The headers and the written data are in the buffer.
+        mBuffer.flush();
+        while (count > 0) {
+            long transferred = channel.transferTo(position, count, mChannel);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            count -= transferred;
+            mTotal += transferred;
+        }
+        if (count > 0) {
+            // The transfer is not supported by the system or the file is shorter than expected.
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, count));
+            while (count > 0) {
+                buffer.clear();
+                if (buffer.remaining() > count) {
+                    buffer.limit((int) count);
+                }
+                int len = channel.read(buffer, position);
+                if (len == -1) {
+                    throw new EOFException("The file ended before the count of bytes has been transferred.");
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    mChannel.write(buffer);
+                }
+                position += len;
+                count -= len;
+                mTotal += len;
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        mBuffer.flush();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !isClosed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isClosed) {
+            isClosed = true;
+            mBuffer.flush();
+        }
+    }
+
+    private void checkClosed() throws IOException {
+        if (isClosed) {
+            throw new IOException("Attempted write to closed stream.");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.util;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * <p> The {@code Accept-Encoding} header of the request. </p>
+ *
+ * The codings are compared case-insensitively, {@code x-gzip} is taken as {@code gzip}. A coding which is not listed
+ * has the quality of {@code *}, or it is not acceptable.
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Get the qualities of the given codings.
+     *
+     * @param headers the values of the {@code Accept-Encoding} headers.
+     * @param codings the content codings, e.g. {@code gzip}.
+     *
+     * @return the quality of each coding in the same order, 0 if it is not acceptable.
+     */
+    @NonNull
+    public static float[] getQualities(@NonNull Iterable<String> headers, @NonNull String... codings) {
+        float[] qualities = new float[codings.length];
+        for (int i = 0; i < qualities.length; i++) {
+            qualities[i] = -1;
+        }
+
+        float any = -1;
+        for (String header: headers) {
+            for (String element: header.split(",")) {
+                String[] params = element.split(";");
+                String coding = params[0].trim().toLowerCase(Locale.ENGLISH);
+                if ("x-gzip".equals(coding)) {
+                    coding = "gzip";
+                }
+                float quality = getQuality(params);
+                if ("*".equals(coding)) {
+                    any = Math.max(any, quality);
+                }
+                for (int i = 0; i < codings.length; i++) {
+                    if (codings[i].equalsIgnoreCase(coding)) {
+                        qualities[i] = Math.max(qualities[i], quality);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < qualities.length; i++) {
+            if (qualities[i] < 0) {
+                qualities[i] = Math.max(any, 0);
+            }
+        }
+        return qualities;
+    }
+
+    private static float getQuality(String[] params) {
+        float quality = 1;
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    quality = Float.parseFloat(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    quality = 0;
+                }
+            }
+        }
+        return Math.min(Math.max(quality, 0), 1);
+    }
+}
@@ -18,9 +18,13 @@ package com.yanzhenjie.andserver.util;
 import android.os.Handler;
 import android.os.Looper;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Zhenjie Yan on 2018/9/10.
@@ -45,6 +49,24 @@ public class Executors {
         return instance;
     }
 
+    /**
+     * Create an executor which runs each task in a new virtual thread, it is only supported by the runtime which has
+     * {@code Thread.ofVirtual()}. On other runtimes, e.g. Android, it falls back to a pool of at most the given count
+     * of platform threads, which rejects the task when all threads are busy.
+     *
+     * @param maxThreads the max count of the threads of the fallback pool.
+     *
+     * @return {@link ExecutorService}.
+     */
+    public static ExecutorService newVirtualThreadExecutor(int maxThreads) {
+        try {
+            Method method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception ignored) {
+        }
+        return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+    }
+
     /**
      * Executor Service.
      */
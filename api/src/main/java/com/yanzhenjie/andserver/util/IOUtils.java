@@ -29,7 +29,9 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FilterInputStream;
 import java.io.FilterOutputStream;
 import java.io.Flushable;
@@ -40,6 +42,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -362,6 +365,46 @@ public class IOUtils {
         }
     }
 
+    /**
+     * Copy the specified count of bytes, the {@link EOFException} is thrown if the input ends early.
+     */
+    public static void write(InputStream input, OutputStream output, long count) throws IOException {
+        byte[] buffer = new byte[4096];
+        while (count > 0) {
+            int len = input.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (len == -1) {
+                throw new EOFException("The input ended before the count of bytes has been read.");
+            }
+            output.write(buffer, 0, len);
+            count -= len;
+        }
+        output.flush();
+    }
+
+    /**
+     * Skip the specified count of bytes, the file is seeked instead of being read.
+     */
+    public static void skip(InputStream input, long count) throws IOException {
+        if (count <= 0) {
+            return;
+        }
+        if (input instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) input).getChannel();
+            channel.position(channel.position() + count);
+            return;
+        }
+        while (count > 0) {
+            long skipped = input.skip(count);
+            if (skipped <= 0) {
+                if (input.read() == -1) {
+                    throw new EOFException("The input ended before the count of bytes has been skipped.");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
     public static void write(InputStream input, Writer output) throws IOException {
         Reader in = new InputStreamReader(input);
         write(in, output);
@@ -183,6 +183,11 @@ public class ConfigProcessor extends BaseProcessor {
             .endControlFlow()
             .addStatement("$T multipart = delegate.getMultipart()", mMultipart)
             .addStatement("register.setMultipart(multipart)")
+            .addStatement("register.setAsyncTimeout(delegate.getAsyncTimeout())")
+            .addStatement("register.setSessionTimeout(delegate.getSessionTimeout())")
+            .addStatement("register.setSessionSweepInterval(delegate.getSessionSweepInterval())")
+            .addStatement("register.setSessionSerializer(delegate.getSessionSerializer())")
+            .addStatement("register.setResponseCache(delegate.getResponseCache())")
             .endControlFlow()
             .build();
 
@@ -26,6 +26,8 @@ import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.yanzhenjie.andserver.annotation.Addition;
 import com.yanzhenjie.andserver.annotation.AppInfo;
+import com.yanzhenjie.andserver.annotation.CacheControl;
+import com.yanzhenjie.andserver.annotation.CacheEvict;
 import com.yanzhenjie.andserver.annotation.Controller;
 import com.yanzhenjie.andserver.annotation.CookieValue;
 import com.yanzhenjie.andserver.annotation.CrossOrigin;
@@ -42,6 +44,7 @@ import com.yanzhenjie.andserver.annotation.RequestHeader;
 import com.yanzhenjie.andserver.annotation.RequestMapping;
 import com.yanzhenjie.andserver.annotation.RequestParam;
 import com.yanzhenjie.andserver.annotation.ResponseBody;
+import com.yanzhenjie.andserver.annotation.ResponseCache;
 import com.yanzhenjie.andserver.annotation.RestController;
 import com.yanzhenjie.andserver.processor.cross.CrossOriginImpl;
 import com.yanzhenjie.andserver.processor.cross.MergeCrossOrigin;
@@ -76,6 +79,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.regex.Pattern;
 
 import javax.annotation.processing.Filer;
@@ -91,6 +95,7 @@ import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 
 /**
  * Created by Zhenjie Yan on 2018/6/8.
@@ -99,6 +104,7 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
 
     private Filer mFiler;
     private Elements mElements;
+    private Types mTypes;
     private Logger mLog;
 
     private TypeName mContext;
@@ -133,9 +139,13 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
     private TypeName mMultipartFile;
     private TypeName mMultipartFileArray;
     private TypeName mMultipartFileList;
+    private TypeName mDeferredResult;
+    private TypeMirror mCompletionStage;
 
     private TypeName mAddition;
     private TypeName mCrossOrigin;
+    private TypeName mCachePolicy;
+    private TypeName mResponseCache;
     private TypeName mMapping;
     private TypeName mMimeTypeMapping;
     private TypeName mMethodMapping;
@@ -162,6 +172,7 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
         super.init(processingEnv);
         mFiler = processingEnv.getFiler();
         mElements = processingEnv.getElementUtils();
+        mTypes = processingEnv.getTypeUtils();
         mLog = new Logger(processingEnv.getMessager());
 
         mContext = TypeName.get(mElements.getTypeElement(Constants.CONTEXT_TYPE).asType());
@@ -196,9 +207,14 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
         mMultipartFile = TypeName.get(mElements.getTypeElement(Constants.MULTIPART_FILE_TYPE).asType());
         mMultipartFileArray = ArrayTypeName.of(mMultipartFile);
         mMultipartFileList = ParameterizedTypeName.get(ClassName.get(List.class), mMultipartFile);
+        mDeferredResult = TypeName.get(mElements.getTypeElement(Constants.DEFERRED_RESULT_TYPE).asType());
+        mCompletionStage = mTypes.erasure(
+            mElements.getTypeElement(CompletionStage.class.getCanonicalName()).asType());
 
         mAddition = TypeName.get(mElements.getTypeElement(Constants.ADDITION_TYPE).asType());
         mCrossOrigin = TypeName.get(mElements.getTypeElement(Constants.CROSS_ORIGIN_TYPE).asType());
+        mCachePolicy = TypeName.get(mElements.getTypeElement(Constants.CACHE_POLICY_TYPE).asType());
+        mResponseCache = TypeName.get(mElements.getTypeElement(Constants.RESPONSE_CACHE_TYPE).asType());
         mMapping = TypeName.get(mElements.getTypeElement(Constants.MAPPING_TYPE).asType());
         mMimeTypeMapping = TypeName.get(mElements.getTypeElement(Constants.MIME_MAPPING_TYPE).asType());
         mMethodMapping = TypeName.get(mElements.getTypeElement(Constants.METHOD_MAPPING_TYPE).asType());
@@ -281,6 +297,7 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
             validateMapping(typeMapping, typeName);
 
             CrossOrigin typeCrossOrigin = type.getAnnotation(CrossOrigin.class);
+            CacheControl typeCacheControl = type.getAnnotation(CacheControl.class);
 
             TypeName controllerType = TypeName.get(type.asType());
             FieldSpec hostField = FieldSpec.builder(controllerType, "mHost", Modifier.PRIVATE).build();
@@ -311,9 +328,30 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
                     addCrossOrigin(rootCode, crossOrigin);
                 }
 
+                CacheControl cacheControl = execute.getAnnotation(CacheControl.class);
+                if (cacheControl == null) {
+                    cacheControl = typeCacheControl;
+                }
+                if (cacheControl == null) {
+                    rootCode.add("\n").addStatement("$T cachePolicy = null", mCachePolicy);
+                } else {
+                    rootCode.add("\n").addStatement("$T cachePolicy = new $T()", mCachePolicy, mCachePolicy);
+                    addCachePolicy(rootCode, cacheControl);
+                }
+
+                ResponseCache responseCache = execute.getAnnotation(ResponseCache.class);
+                CacheEvict cacheEvict = execute.getAnnotation(CacheEvict.class);
+                if (responseCache == null && cacheEvict == null) {
+                    rootCode.add("\n").addStatement("$T responseCache = null", mResponseCache);
+                } else {
+                    rootCode.add("\n").addStatement("$T responseCache = new $T()", mResponseCache, mResponseCache);
+                    addResponseCache(rootCode, responseCache, cacheEvict);
+                }
+
                 String handlerName = createHandler(type, execute, mapping.path(), mapping.isRest());
-                rootCode.addStatement("$L handler = new $L(mHost, mapping, addition, crossOrigin)", handlerName,
-                    handlerName).addStatement("mMappingMap.put(mapping, handler)").endControlFlow();
+                rootCode.addStatement(
+                    "$L handler = new $L(mHost, mapping, addition, crossOrigin, cachePolicy, responseCache)",
+                    handlerName, handlerName).addStatement("mMappingMap.put(mapping, handler)").endControlFlow();
             }
             MethodSpec rootMethod = MethodSpec.constructorBuilder()
                 .addModifiers(Modifier.PUBLIC)
@@ -747,6 +785,50 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
         builder.addStatement("crossOrigin.setMaxAge($L)", maxAge);
     }
 
+    private void addCachePolicy(CodeBlock.Builder builder, CacheControl cacheControl) {
+        long maxAge = cacheControl.maxAge();
+        if (maxAge < 0) {
+            maxAge = cacheControl.value();
+        }
+        builder.addStatement("cachePolicy.setMaxAge($LL)", maxAge)
+            .addStatement("cachePolicy.setPublic($L)", cacheControl.isPublic())
+            .addStatement("cachePolicy.setNoCache($L)", cacheControl.noCache())
+            .addStatement("cachePolicy.setNoStore($L)", cacheControl.noStore())
+            .addStatement("cachePolicy.setMustRevalidate($L)", cacheControl.mustRevalidate())
+            .addStatement("cachePolicy.setImmutable($L)", cacheControl.immutable())
+            .addStatement("cachePolicy.setStaleWhileRevalidate($LL)", cacheControl.staleWhileRevalidate());
+    }
+
+    private void addResponseCache(CodeBlock.Builder builder, ResponseCache responseCache, CacheEvict cacheEvict) {
+        if (responseCache != null) {
+            long ttl = responseCache.ttl();
+            if (ttl < 0) {
+                ttl = responseCache.value();
+            }
+            if (ttl < 0) {
+                builder.addStatement("responseCache.setTtl($T.DEFAULT_TTL)", mResponseCache);
+            } else {
+                builder.addStatement("responseCache.setTtl($LL)", ttl);
+            }
+            builder.addStatement("responseCache.setHeaders(new String[]{$L})", toArray(responseCache.headers()))
+                .addStatement("responseCache.setTags(new String[]{$L})", toArray(responseCache.tags()));
+        }
+        if (cacheEvict != null) {
+            builder.addStatement("responseCache.setEvictTags(new String[]{$L})", toArray(cacheEvict.value()));
+        }
+    }
+
+    private static String toArray(String[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (String value: values) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append("\"").append(value).append("\"");
+        }
+        return builder.toString();
+    }
+
     /**
      * Create a handler class and return the simple name of the handler.
      *
@@ -761,13 +843,14 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
             .addParameter(mMapping, "mapping")
             .addParameter(mAddition, "addition")
             .addParameter(mCrossOrigin, "crossOrigin")
-            .addStatement("super(host, mapping, addition, crossOrigin)")
+            .addParameter(mCachePolicy, "cachePolicy")
+            .addParameter(mResponseCache, "responseCache")
+            .addStatement("super(host, mapping, addition, crossOrigin, cachePolicy, responseCache)")
             .addStatement("this.mHost = host")
             .build();
 
         CodeBlock.Builder handleCode = CodeBlock.builder()
             .addStatement("$T context = ($T)request.getAttribute($T.ANDROID_CONTEXT)", mContext, mContext, mRequest)
-            .addStatement("String httpPath = request.getPath()")
             .addStatement("$T httpMethod = request.getMethod()", mHttpMethod)
             .add("\n")
             .addStatement("Object converterObj = request.getAttribute($T.HTTP_MESSAGE_CONVERTER)", mRequest)
@@ -786,7 +869,7 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
             .addStatement("requestBody = request.getBody()")
             .endControlFlow()
             .add("\n")
-            .addStatement("$T<String, String> pathMap = getPathVariable(httpPath)", Map.class)
+            .addStatement("$T<String, String> pathMap = getPathVariable(request)", Map.class)
             .add("\n")
             .add("/** ---------- Building Parameters ---------- **/ ")
             .add("\n");
@@ -1220,8 +1303,12 @@ public class ControllerProcessor extends BaseProcessor implements Patterns {
         String executeName = execute.getSimpleName().toString();
         TypeMirror returnMirror = execute.getReturnType();
         boolean isVoid = TypeKind.VOID.equals(returnMirror.getKind());
+        boolean isStage = !isVoid && mTypes.isAssignable(mTypes.erasure(returnMirror), mCompletionStage);
         if (isVoid) {
             handleCode.addStatement("(($T)mHost).$L($L)", type, executeName, paramBuild.toString());
+        } else if (isStage) {
+            handleCode.addStatement("Object o = $T.from((($T)mHost).$L($L))", mDeferredResult, type, executeName,
+                paramBuild.toString());
         } else {
             handleCode.addStatement("Object o = (($T)mHost).$L($L)", type, executeName, paramBuild.toString());
         }
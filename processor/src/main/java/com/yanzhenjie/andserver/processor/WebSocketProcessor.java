@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 AndServer contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.yanzhenjie.andserver.processor;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.yanzhenjie.andserver.annotation.AppInfo;
+import com.yanzhenjie.andserver.annotation.WebSocket;
+import com.yanzhenjie.andserver.processor.util.Constants;
+import com.yanzhenjie.andserver.processor.util.Logger;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * Register the handlers which are annotated with {@code WebSocket} as the endpoints.
+ */
+public class WebSocketProcessor extends BaseProcessor {
+
+    private Filer mFiler;
+    private Elements mElements;
+    private Logger mLog;
+
+    private TypeName mContext;
+    private TypeName mOnRegisterType;
+    private TypeName mRegisterType;
+
+    private TypeName mHandler;
+    private TypeName mEndpoint;
+
+    private TypeName mString;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        mFiler = processingEnv.getFiler();
+        mElements = processingEnv.getElementUtils();
+        mLog = new Logger(processingEnv.getMessager());
+
+        mContext = TypeName.get(mElements.getTypeElement(Constants.CONTEXT_TYPE).asType());
+        mOnRegisterType = TypeName.get(mElements.getTypeElement(Constants.ON_REGISTER_TYPE).asType());
+        mRegisterType = TypeName.get(mElements.getTypeElement(Constants.REGISTER_TYPE).asType());
+
+        mHandler = TypeName.get(mElements.getTypeElement(Constants.WEBSOCKET_HANDLER_TYPE).asType());
+        mEndpoint = TypeName.get(mElements.getTypeElement(Constants.WEBSOCKET_ENDPOINT_TYPE).asType());
+
+        mString = TypeName.get(String.class);
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> set, RoundEnvironment roundEnv) {
+        if (CollectionUtils.isEmpty(set)) {
+            return false;
+        }
+
+        Set<? extends Element> appSet = roundEnv.getElementsAnnotatedWith(AppInfo.class);
+        String registerPackageName = getRegisterPackageName(appSet);
+
+        Map<String, List<TypeElement>> handlerMap = findAnnotation(roundEnv);
+        if (!handlerMap.isEmpty()) {
+            createRegister(registerPackageName, handlerMap);
+        }
+        return true;
+    }
+
+    private Map<String, List<TypeElement>> findAnnotation(RoundEnvironment roundEnv) {
+        Set<? extends Element> set = roundEnv.getElementsAnnotatedWith(WebSocket.class);
+        Map<String, List<TypeElement>> handlerMap = new HashMap<>();
+
+        for (Element element: set) {
+            if (element instanceof TypeElement) {
+                TypeElement typeElement = (TypeElement) element;
+
+                Set<Modifier> modifiers = typeElement.getModifiers();
+                Validate.isTrue(modifiers.contains(Modifier.PUBLIC), "The modifier public is missing on %s.",
+                    typeElement.getQualifiedName());
+
+                if (!isAcceptInterface(typeElement, mHandler)) {
+                    mLog.w(String.format(
+                        "The annotation WebSocket must be used in a subclass of [WebSocketHandler] on %s.",
+                        typeElement.getQualifiedName()));
+                    continue;
+                }
+
+                WebSocket webSocket = typeElement.getAnnotation(WebSocket.class);
+                Validate.isTrue(webSocket.value().length > 0, "The path is missing on %s.",
+                    typeElement.getQualifiedName());
+                for (String path: webSocket.value()) {
+                    Validate.isTrue(StringUtils.startsWith(path, "/"), "The path [%s] must start with / on %s.", path,
+                        typeElement.getQualifiedName());
+                }
+                Validate.isTrue(webSocket.maxFrameSize() > 0, "The maxFrameSize must be greater than 0 on %s.",
+                    typeElement.getQualifiedName());
+                Validate.isTrue(webSocket.maxQueueSize() > 0, "The maxQueueSize must be greater than 0 on %s.",
+                    typeElement.getQualifiedName());
+
+                String group = webSocket.group();
+                List<TypeElement> elementList = handlerMap.get(group);
+                if (CollectionUtils.isEmpty(elementList)) {
+                    elementList = new ArrayList<>();
+                    handlerMap.put(group, elementList);
+                }
+                elementList.add(typeElement);
+            }
+        }
+        return handlerMap;
+    }
+
+    private void createRegister(String registerPackageName, Map<String, List<TypeElement>> handlerMap) {
+        TypeName pathTypeName = ParameterizedTypeName.get(ClassName.get(Map.class), mString, mEndpoint);
+        TypeName typeName = ParameterizedTypeName.get(ClassName.get(Map.class), mString, pathTypeName);
+        FieldSpec mapField = FieldSpec.builder(typeName, "mMap", Modifier.PRIVATE).build();
+
+        CodeBlock.Builder rootCode = CodeBlock.builder().addStatement("this.mMap = new $T<>()", HashMap.class);
+        int index = 0;
+        for (Map.Entry<String, List<TypeElement>> entry: handlerMap.entrySet()) {
+            String group = entry.getKey();
+            List<TypeElement> handlerList = entry.getValue();
+
+            CodeBlock.Builder groupCode = CodeBlock.builder()
+                .addStatement("Map<String, $T> $LMap = new $T<>()", mEndpoint, group, HashMap.class);
+            for (TypeElement type: handlerList) {
+                mLog.i(String.format("------ Processing %s ------", type.getSimpleName()));
+
+                WebSocket webSocket = type.getAnnotation(WebSocket.class);
+                String endpoint = "endpoint" + index++;
+                groupCode.addStatement("$T $L = new $T(new $T(), $L, $L)", mEndpoint, endpoint, mEndpoint, type,
+                    webSocket.maxFrameSize(), webSocket.maxQueueSize());
+                for (String path: webSocket.value()) {
+                    groupCode.addStatement("$LMap.put($S, $L)", group, path, endpoint);
+                }
+            }
+
+            rootCode.add(groupCode.build());
+            rootCode.addStatement("this.mMap.put($S, $LMap)", group, group);
+        }
+
+        MethodSpec rootMethod = MethodSpec.constructorBuilder()
+            .addModifiers(Modifier.PUBLIC)
+            .addCode(rootCode.build())
+            .build();
+
+        MethodSpec registerMethod = MethodSpec.methodBuilder("onRegister")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(mContext, "context")
+            .addParameter(mString, "group")
+            .addParameter(mRegisterType, "register")
+            .addStatement("Map<String, $T> map = new $T<>()", mEndpoint, HashMap.class)
+            .addStatement("Map<String, $T> defaultMap = mMap.get($S)", mEndpoint, "default")
+            .beginControlFlow("if(defaultMap != null)")
+            .addStatement("map.putAll(defaultMap)")
+            .endControlFlow()
+            .addStatement("Map<String, $T> groupMap = mMap.get(group)", mEndpoint)
+            .beginControlFlow("if(groupMap != null)")
+            .addStatement("map.putAll(groupMap)")
+            .endControlFlow()
+            .beginControlFlow("for (Map.Entry<String, $T> entry : map.entrySet())", mEndpoint)
+            .addStatement("register.addWebSocket(entry.getKey(), entry.getValue())")
+            .endControlFlow()
+            .build();
+
+        TypeSpec adapterClass = TypeSpec.classBuilder("WebSocketRegister")
+            .addJavadoc(Constants.DOC_EDIT_WARN)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(mOnRegisterType)
+            .addField(mapField)
+            .addMethod(rootMethod)
+            .addMethod(registerMethod)
+            .build();
+
+        JavaFile javaFile = JavaFile.builder(registerPackageName, adapterClass).build();
+        try {
+            javaFile.writeTo(mFiler);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    protected void addAnnotation(Set<Class<? extends Annotation>> classSet) {
+        classSet.add(WebSocket.class);
+        classSet.add(AppInfo.class);
+    }
+}
@@ -52,6 +52,8 @@ public interface Constants {
     String CONFIG_TYPE = PACKAGE_NAME + ".framework.config.WebConfig";
     String CONFIG_DELEGATE_TYPE = PACKAGE_NAME + ".framework.config.Delegate";
     String CONFIG_MULTIPART_TYPE = PACKAGE_NAME + ".framework.config.Multipart";
+    String WEBSOCKET_HANDLER_TYPE = PACKAGE_NAME + ".framework.websocket.WebSocketHandler";
+    String WEBSOCKET_ENDPOINT_TYPE = PACKAGE_NAME + ".framework.websocket.WebSocketEndpoint";
 
     String REQUEST_TYPE = PACKAGE_NAME + ".http.HttpRequest";
     String MULTIPART_REQUEST_TYPE = PACKAGE_NAME + ".http.multipart.MultipartRequest";
@@ -61,9 +63,12 @@ public interface Constants {
     String SESSION_TYPE = PACKAGE_NAME + ".http.session.Session";
     String REQUEST_BODY_TYPE = PACKAGE_NAME + ".http.RequestBody";
     String MULTIPART_FILE_TYPE = PACKAGE_NAME + ".http.multipart.MultipartFile";
+    String DEFERRED_RESULT_TYPE = PACKAGE_NAME + ".http.DeferredResult";
 
     String ADDITION_TYPE = PACKAGE_NAME + ".framework.mapping.Addition";
     String CROSS_ORIGIN_TYPE = PACKAGE_NAME + ".framework.cross.CrossOrigin";
+    String CACHE_POLICY_TYPE = PACKAGE_NAME + ".framework.cache.CachePolicy";
+    String RESPONSE_CACHE_TYPE = PACKAGE_NAME + ".framework.cache.ResponseCache";
     String MAPPING_TYPE = PACKAGE_NAME + ".framework.mapping.Mapping";
     String MIME_MAPPING_TYPE = PACKAGE_NAME + ".framework.mapping.Mime";
     String METHOD_MAPPING_TYPE = PACKAGE_NAME + ".framework.mapping.Method";